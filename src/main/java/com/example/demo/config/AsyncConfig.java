@@ -0,0 +1,112 @@
+package com.example.demo.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * バックグラウンド処理用のスレッドプール設定。
+ * リクエストスレッドを長時間占有する処理 (CSV一括登録など) はここで定義した実行枠で動かす。
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class AsyncConfig {
+
+    private final Environment environment;
+
+    /** CSV一括登録ジョブ用。同時実行数とキュー長を制限し、溢れた分は受付時に拒否する */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(
+            @Value("${app.import.executor.pool-size:2}") int poolSize,
+            @Value("${app.import.executor.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("csv-import-");
+        useVirtualThreadsIfEnabled(executor, "csv-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * CSVの検証のみ取込で、行の検証を分割して並列に行う。CPUのみを使う処理なのでコア数まで並列にし、
+     * 溢れた分は呼び出し元 (取込ジョブのスレッド) で実行する。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importValidationExecutor(
+            @Value("${app.import.validation-executor.pool-size:0}") int poolSize) {
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(size * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("csv-validate-");
+        return executor;
+    }
+
+    /**
+     * ラベルシート生成時のQRコード生成用。CPUのみを使う処理なのでコア数まで並列にし、
+     * 1ページ分ずつ投入するためキューは小さくてよい (溢れた分は呼び出し元で実行)。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor qrLabelExecutor(
+            @Value("${app.qrcode.label-executor.pool-size:0}") int poolSize) {
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(size * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("qr-label-");
+        useVirtualThreadsIfEnabled(executor, "qr-label-");
+        return executor;
+    }
+
+    /**
+     * 画面へのリアルタイム配信 (SSE) 用。購読者ごとの送信と、配信内容の組み立て (DB参照) をここで行い、
+     * 貸出・返却などの書き込み側スレッドは待たせない。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor liveUpdateExecutor(
+            @Value("${app.live.executor.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("live-update-");
+        return executor;
+    }
+
+    /** アップロード画像の縮小・再エンコード用。溢れた分は次回起動時の走査で生成する */
+    @Bean
+    public ThreadPoolTaskExecutor imageExecutor(
+            @Value("${app.image.executor.pool-size:2}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1_000);
+        executor.setThreadNamePrefix("image-");
+        return executor;
+    }
+
+    /**
+     * spring.threads.virtual.enabled が有効 (Java 21 以上) なら、実行枠のスレッドを仮想スレッドにする。
+     * プールの大きさとキューはそのまま同時実行数・受付数の上限として働く。
+     */
+    private void useVirtualThreadsIfEnabled(ThreadPoolTaskExecutor executor, String threadNamePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        }
+    }
+}
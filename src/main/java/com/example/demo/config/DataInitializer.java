@@ -1,11 +1,16 @@
 package com.example.demo.config;
 
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.Assignment;
+import com.example.demo.service.ImageCatalogService;
 import com.example.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 /**
@@ -19,10 +24,66 @@ public class DataInitializer implements ApplicationRunner {
     private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
 
     private final UserService userService;
+    private final ImageCatalogService imageCatalogService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public void run(ApplicationArguments args) {
         userService.ensureAdminExists();
+        syncIdSequences();
+        backfillOpenAssetIds();
+        backfillImageCatalog();
         log.info("初期データチェック完了（管理者ユーザー確認済み）");
     }
+
+    /**
+     * assets / assignments の採番テーブルを既存データの最大IDより先へ進める。
+     * IDENTITY 採番時代の行と衝突しないよう、pooled 最適化の先取り幅も考慮する。
+     * ネイティブシーケンスを使うDB (H2 など) ではテーブルが存在しないため何もしない。
+     */
+    private void syncIdSequences() {
+        syncIdSequence("assets", "assets_seq", Asset.ID_ALLOCATION_SIZE);
+        syncIdSequence("assignments", "assignments_seq", Assignment.ID_ALLOCATION_SIZE);
+    }
+
+    private void syncIdSequence(String table, String sequenceTable, int allocationSize) {
+        try {
+            int updated = jdbcTemplate.update(
+                    "update " + sequenceTable + " set next_val = (select coalesce(max(id), 0) from " + table + ") + ? "
+                            + "where next_val <= (select coalesce(max(id), 0) from " + table + ") + ?",
+                    allocationSize + 1, allocationSize);
+            if (updated > 0) {
+                log.info("{} を既存データの最大IDに合わせて補正しました", sequenceTable);
+            }
+        } catch (DataAccessException e) {
+            log.debug("{} の補正をスキップしました: {}", sequenceTable, e.getMessage());
+        }
+    }
+
+    /**
+     * 列追加前から貸出中だった履歴に open_asset_id を設定する (一意制約の対象にする)。
+     * 既に同じ資産の貸出中履歴が重複している場合は失敗するため、警告だけ出して起動は続ける。
+     */
+    private void backfillOpenAssetIds() {
+        try {
+            int updated = jdbcTemplate.update(
+                    "update assignments set open_asset_id = asset_id "
+                            + "where return_date is null and open_asset_id is null");
+            if (updated > 0) {
+                log.info("貸出中の履歴 {} 件に open_asset_id を設定しました", updated);
+            }
+        } catch (DataAccessException e) {
+            log.warn("open_asset_id の設定に失敗しました (同じ資産の貸出中履歴が重複している可能性があります): {}",
+                    e.getMessage());
+        }
+    }
+
+    /** 既存資産の画像から画像カタログを作成する。失敗しても起動は続け、次回起動時に再試行する */
+    private void backfillImageCatalog() {
+        try {
+            imageCatalogService.backfill();
+        } catch (RuntimeException e) {
+            log.warn("画像カタログの作成に失敗しました: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 1リクエストあたりの SQL 発行数をメトリクス (http.server.requests.sql) に記録する。
+ *
+ * <p>Hibernate が SQL を準備するたびに StatementInspector でリクエストスレッドのカウンタを増やし、
+ * リクエストの終わりに URI パターン (/assets/{id} など) ごとの分布として記録する。
+ * 一覧の N+1 のように件数に比例して増える発行数を、画面が遅くなる前に見つけるためのもの。
+ * バックグラウンドのスレッド (CSV取込など) で発行した SQL は数えない。
+ */
+@Configuration
+public class SqlMetricsConfig {
+
+    /** 実行中のリクエストで発行した SQL の数 (リクエスト外のスレッドでは null) */
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlCountingInspector() {
+        StatementInspector inspector = sql -> {
+            int[] count = STATEMENTS.get();
+            if (count != null) count[0]++;
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public OncePerRequestFilter sqlCountingFilter(MeterRegistry meterRegistry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                int[] count = new int[1];
+                STATEMENTS.set(count);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    STATEMENTS.remove();
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder("http.server.requests.sql")
+                            .description("1リクエストで発行した SQL の数")
+                            .baseUnit("statements")
+                            .tag("method", request.getMethod())
+                            .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(1.0)
+                            .maximumExpectedValue(1000.0)
+                            .register(meterRegistry)
+                            .record(count[0]);
+                }
+            }
+        };
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AssignmentHistoryFilter;
 import com.example.demo.entity.*;
 import com.example.demo.service.AssetService;
+import com.example.demo.service.CsvExportService;
 import com.example.demo.service.CsvService;
-import com.example.demo.service.QrCodeService;
+import com.example.demo.service.ImageCatalogService;
+import com.example.demo.service.ImportJob;
+import com.example.demo.service.ImportJobService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,15 +22,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.UUID;
 
 @Controller
 @RequestMapping("/assets")
@@ -29,42 +37,44 @@ import java.util.UUID;
 public class AssetController {
 
     private final AssetService assetService;
-    private final QrCodeService qrCodeService;
     private final CsvService csvService;
+    private final CsvExportService csvExportService;
+    private final ImportJobService importJobService;
+    private final ImageCatalogService imageCatalogService;
 
-    @Value("${app.upload.dir:uploads/assets}")
-    private String uploadDir;
-
-    /** 一覧 (全資産の状態 + 現在の利用者) */
+    /** 一覧 (資産の状態 + 現在の利用者、サーバー側で検索・ページング) */
     @GetMapping
-    public String list(Model model) {
-        model.addAttribute("assets", assetService.findAll());
-        model.addAttribute("assignmentMap", assetService.getCurrentAssignmentMap());
+    public String list(@RequestParam(required = false) String q,
+                       @RequestParam(required = false) AssetStatus status,
+                       @RequestParam(required = false) AssetType type,
+                       @PageableDefault(size = 50) Pageable pageable,
+                       Model model) {
+        model.addAttribute("page", assetService.searchList(q, status, type, pageable));
+        model.addAttribute("q", q);
+        model.addAttribute("status", status);
+        model.addAttribute("type", type);
+        model.addAttribute("assetTypes", AssetType.values());
+        model.addAttribute("assetStatuses", AssetStatus.values());
         return "asset/list";
     }
 
-    /** 詳細画面 (QRコード表示) */
+    /** 詳細画面 (QRコードは /api/qrcode の画像を参照) */
     @GetMapping("/{id}")
     public String detail(@PathVariable Long id, Model model) {
         Asset asset = assetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("資産が見つかりません"));
-        String qrBase64 = qrCodeService.generateQrCodeBase64(asset.getQrCodeId());
-
-        var assignmentMap = assetService.getCurrentAssignmentMap();
-        Assignment currentAssignment = assignmentMap.get(asset.getId());
+        Assignment currentAssignment = assetService.findCurrentAssignment(asset.getId()).orElse(null);
 
         model.addAttribute("asset", asset);
-        model.addAttribute("qrBase64", qrBase64);
         model.addAttribute("currentAssignment", currentAssignment);
         return "asset/detail";
     }
 
-    /** 新規登録フォーム (コピー登録対応 / QRコードID自動発行) */
+    /** 新規登録フォーム (コピー登録対応 / QRコードIDは保存時に自動発行) */
     @GetMapping("/new")
     public String newForm(@RequestParam(required = false) Long copyFrom, Model model) {
         Asset asset = new Asset();
         asset.setStatus(AssetStatus.STOCK);
-        asset.setQrCodeId(assetService.generateQrCodeId());
 
         if (copyFrom != null) {
             assetService.findById(copyFrom).ifPresent(source -> {
@@ -118,7 +128,8 @@ public class AssetController {
     @PostMapping("/{id}")
     public String update(@PathVariable Long id,
                          @ModelAttribute Asset asset,
-                         @RequestParam(value = "imageFile", required = false) MultipartFile imageFile) {
+                         @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
+                         RedirectAttributes redirectAttributes) {
         Asset existing = assetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("資産が見つかりません"));
         asset.setId(id);
@@ -128,7 +139,13 @@ public class AssetController {
             saveImageIfPresent(asset, imageFile);
         }
         applySharedImageIfAbsent(asset);
-        assetService.save(asset);
+        try {
+            assetService.save(asset);
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error",
+                    "編集中に他の端末でこの資産が更新されました。最新の内容を確認してから再度保存してください");
+            return "redirect:/assets/" + id + "/edit";
+        }
         return "redirect:/assets";
     }
 
@@ -141,9 +158,12 @@ public class AssetController {
 
     // ==================== CSV 関連 ====================
 
-    /** CSV一括登録画面 */
+    /** CSV一括登録画面 (job 指定時は取込ジョブの進捗を表示) */
     @GetMapping("/csv")
-    public String csvPage() {
+    public String csvPage(@RequestParam(required = false) String job, Model model) {
+        model.addAttribute("jobId", job);
+        model.addAttribute("assetTypes", AssetType.values());
+        model.addAttribute("assetStatuses", AssetStatus.values());
         return "asset/csv";
     }
 
@@ -163,24 +183,69 @@ public class AssetController {
                 .body(combined);
     }
 
-    /** CSVアップロード処理 */
+    /**
+     * 資産CSV出力 (一覧画面と同じ絞り込み)。行はDBからストリームで読みながら書き出す。
+     * 例: /assets/csv/export?status=IN_USE&encoding=SJIS
+     */
+    @GetMapping("/csv/export")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) AssetType type,
+            @RequestParam(defaultValue = "UTF8") CsvExportService.Encoding encoding) {
+        StreamingResponseBody body = out -> csvExportService.writeAssets(q, status, type, encoding, out);
+        return csvResponse("assets", encoding, body);
+    }
+
+    /**
+     * 貸出履歴CSV出力 (新しい順、条件は /api/history と同じ)。
+     * 例: /assets/csv/history?from=2025-04-01&to=2026-03-31&open=true
+     */
+    @GetMapping("/csv/history")
+    public ResponseEntity<StreamingResponseBody> exportHistoryCsv(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long assetId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Boolean open,
+            @RequestParam(defaultValue = "UTF8") CsvExportService.Encoding encoding) {
+        AssignmentHistoryFilter filter = new AssignmentHistoryFilter(employeeId, assetId, departmentId, from, to, open);
+        StreamingResponseBody body = out -> csvExportService.writeAssignments(filter, encoding, out);
+        return csvResponse("assignments", encoding, body);
+    }
+
+    /** CSVアップロード処理 (バックグラウンドの取込ジョブとして受け付ける。validateOnly なら検証のみ) */
     @PostMapping("/csv/upload")
     public String uploadCsv(@RequestParam("file") MultipartFile file,
+                            @RequestParam(defaultValue = "false") boolean validateOnly,
                             RedirectAttributes redirectAttributes) {
         if (file.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "ファイルが選択されていません");
             return "redirect:/assets/csv";
         }
 
-        CsvService.CsvImportResult result = csvService.importAssetCsv(file);
-
-        redirectAttributes.addFlashAttribute("successCount", result.successCount());
-        if (result.hasErrors()) {
-            redirectAttributes.addFlashAttribute("errors", result.errors());
+        try {
+            ImportJob job = importJobService.submit(ImportJob.Type.ASSET, file, validateOnly);
+            return "redirect:/assets/csv?job=" + job.getId();
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "取込処理が混み合っています。しばらくしてから再度お試しください");
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "ファイルの受け付けに失敗しました: " + e.getMessage());
         }
         return "redirect:/assets/csv";
     }
 
+    private static ResponseEntity<StreamingResponseBody> csvResponse(String name, CsvExportService.Encoding encoding,
+                                                                     StreamingResponseBody body) {
+        String fileName = name + "_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".csv";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .cacheControl(CacheControl.noStore())
+                .contentType(MediaType.parseMediaType("text/csv; charset=" + encoding.getHttpName()))
+                .body(body);
+    }
+
     /** 型名から共有画像を検索し、画像パスが未設定のアセットに適用する */
     @GetMapping("/api/image-by-model")
     @ResponseBody
@@ -197,26 +262,13 @@ public class AssetController {
                 .ifPresent(asset::setImagePath);
     }
 
-    /** 画像ファイルを保存し、Asset に相対パスをセットする */
+    /** 画像ファイルを保存し、Asset に相対パスをセットする (同じ内容の画像は1つにまとめ、縮小版の生成はバックグラウンド) */
     private void saveImageIfPresent(Asset asset, MultipartFile imageFile) {
         if (imageFile == null || imageFile.isEmpty()) {
             return;
         }
         try {
-            Path dirPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            Files.createDirectories(dirPath);
-
-            String originalFilename = imageFile.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String storedFilename = UUID.randomUUID() + extension;
-
-            Path filePath = dirPath.resolve(storedFilename);
-            imageFile.transferTo(filePath.toFile());
-
-            asset.setImagePath(storedFilename);
+            asset.setImagePath(imageCatalogService.store(imageFile));
         } catch (IOException e) {
             throw new RuntimeException("画像の保存に失敗しました", e);
         }
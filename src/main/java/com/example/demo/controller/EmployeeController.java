@@ -7,6 +7,8 @@ import com.example.demo.entity.Section;
 import com.example.demo.repository.AssignmentRepository;
 import com.example.demo.service.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,8 +16,12 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Controller
@@ -26,8 +32,10 @@ public class EmployeeController {
     private final EmployeeService employeeService;
     private final DepartmentService departmentService;
     private final SectionService sectionService;
-    private final QrCodeService qrCodeService;
+    private final OrganizationDirectory organizationDirectory;
     private final CsvService csvService;
+    private final CsvExportService csvExportService;
+    private final ImportJobService importJobService;
     private final AssignmentRepository assignmentRepository;
 
     /** 一覧 */
@@ -37,15 +45,13 @@ public class EmployeeController {
         return "employee/list";
     }
 
-    /** 詳細画面 (QRコード表示 + 貸出中資産一覧) */
+    /** 詳細画面 (QRコード表示 + 貸出中資産一覧、QRコードは /api/qrcode の画像を参照) */
     @GetMapping("/{id}")
     public String detail(@PathVariable Long id, Model model) {
         Employee employee = employeeService.findById(id)
                 .orElseThrow(() -> new RuntimeException("社員が見つかりません"));
-        String qrBase64 = qrCodeService.generateQrCodeBase64(employee.getEmployeeCode());
         List<Assignment> activeAssignments = assignmentRepository.findByEmployeeAndReturnDateIsNull(employee);
         model.addAttribute("employee", employee);
-        model.addAttribute("qrBase64", qrBase64);
         model.addAttribute("activeAssignments", activeAssignments);
         return "employee/detail";
     }
@@ -54,7 +60,7 @@ public class EmployeeController {
     @GetMapping("/new")
     public String newForm(Model model) {
         model.addAttribute("employee", new Employee());
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         return "employee/form";
     }
 
@@ -78,10 +84,10 @@ public class EmployeeController {
         Employee employee = employeeService.findById(id)
                 .orElseThrow(() -> new RuntimeException("社員が見つかりません"));
         model.addAttribute("employee", employee);
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         if (employee.getDepartment() != null) {
             model.addAttribute("sections",
-                    sectionService.findByDepartmentId(employee.getDepartment().getId()));
+                    organizationDirectory.snapshot().sections(employee.getDepartment().getId()));
         }
         return "employee/form";
     }
@@ -127,9 +133,11 @@ public class EmployeeController {
 
     // ==================== CSV 関連 ====================
 
-    /** CSV一括登録画面 */
+    /** CSV一括登録画面 (job 指定時は取込ジョブの進捗を表示) */
     @GetMapping("/csv")
-    public String csvPage() {
+    public String csvPage(@RequestParam(required = false) String job, Model model) {
+        model.addAttribute("jobId", job);
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         return "employee/csv";
     }
 
@@ -149,20 +157,40 @@ public class EmployeeController {
                 .body(combined);
     }
 
-    /** CSVアップロード処理 */
+    /**
+     * 社員CSV出力 (departmentId 指定時はその部署のみ)。行はDBからストリームで読みながら書き出す。
+     * 例: /employees/csv/export?departmentId=1&encoding=SJIS
+     */
+    @GetMapping("/csv/export")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(defaultValue = "UTF8") CsvExportService.Encoding encoding) {
+        StreamingResponseBody body = out -> csvExportService.writeEmployees(departmentId, encoding, out);
+        String fileName = "employees_" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".csv";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .cacheControl(CacheControl.noStore())
+                .contentType(MediaType.parseMediaType("text/csv; charset=" + encoding.getHttpName()))
+                .body(body);
+    }
+
+    /** CSVアップロード処理 (バックグラウンドの取込ジョブとして受け付ける。validateOnly なら検証のみ) */
     @PostMapping("/csv/upload")
     public String uploadCsv(@RequestParam("file") MultipartFile file,
+                            @RequestParam(defaultValue = "false") boolean validateOnly,
                             RedirectAttributes redirectAttributes) {
         if (file.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "ファイルが選択されていません");
             return "redirect:/employees/csv";
         }
 
-        CsvService.CsvImportResult result = csvService.importEmployeeCsv(file);
-
-        redirectAttributes.addFlashAttribute("successCount", result.successCount());
-        if (result.hasErrors()) {
-            redirectAttributes.addFlashAttribute("errors", result.errors());
+        try {
+            ImportJob job = importJobService.submit(ImportJob.Type.EMPLOYEE, file, validateOnly);
+            return "redirect:/employees/csv?job=" + job.getId();
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "取込処理が混み合っています。しばらくしてから再度お試しください");
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "ファイルの受け付けに失敗しました: " + e.getMessage());
         }
         return "redirect:/employees/csv";
     }
@@ -0,0 +1,44 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.AssignmentHistoryFilter;
+import com.example.demo.dto.AssignmentHistoryPage;
+import com.example.demo.service.AssignmentHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/history")
+@RequiredArgsConstructor
+public class HistoryController {
+
+    private final AssignmentHistoryService assignmentHistoryService;
+
+    /**
+     * 貸出履歴 (新しい順)。続きは応答の nextCursor を cursor に渡して取得する。
+     * 例: /api/history?employeeId=12&from=2025-04-01&open=false&size=50
+     */
+    @GetMapping
+    public ResponseEntity<AssignmentHistoryPage> search(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long assetId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Boolean open,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        AssignmentHistoryFilter filter = new AssignmentHistoryFilter(employeeId, assetId, departmentId, from, to, open);
+        try {
+            return ResponseEntity.ok(assignmentHistoryService.findPage(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.demo.controller;
 
-import com.example.demo.repository.AssetRepository;
-import com.example.demo.repository.AssignmentRepository;
-import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.DashboardStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -12,9 +10,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 @RequiredArgsConstructor
 public class HomeController {
 
-    private final AssetRepository assetRepository;
-    private final EmployeeRepository employeeRepository;
-    private final AssignmentRepository assignmentRepository;
+    private final DashboardStatsService dashboardStatsService;
 
     /** ログイン画面 */
     @GetMapping("/login")
@@ -22,15 +18,14 @@ public class HomeController {
         return "login";
     }
 
-    /** ダッシュボード */
+    /** ダッシュボード (集計値はメモリ上のスナップショットを参照) */
     @GetMapping("/")
     public String home(Model model) {
-        long totalAssets = assetRepository.count();
-        long totalEmployees = employeeRepository.count();
-        long activeAssignments = assignmentRepository.findByReturnDateIsNull().size();
-        model.addAttribute("totalAssets", totalAssets);
-        model.addAttribute("totalEmployees", totalEmployees);
-        model.addAttribute("activeAssignments", activeAssignments);
+        var stats = dashboardStatsService.getStats();
+        model.addAttribute("totalAssets", stats.totalAssets());
+        model.addAttribute("totalEmployees", stats.totalEmployees());
+        model.addAttribute("activeAssignments", stats.activeAssignments());
+        model.addAttribute("stats", stats);
         return "home";
     }
 }
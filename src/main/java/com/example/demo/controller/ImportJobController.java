@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ImportJob;
+import com.example.demo.service.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/import-jobs")
+@RequiredArgsConstructor
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    /** 取込ジョブの進捗 (処理行数・処理速度・エラー件数・残り時間) */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob.Snapshot> status(@PathVariable String id) {
+        return importJobService.findById(id)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 検証のみのジョブの結果を登録する (ファイルは読み直さない)。
+     * 登録ジョブを開始し、その進捗を返す。検証中・登録済みの場合は 409。
+     */
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<?> commit(@PathVariable String id) throws IOException {
+        try {
+            ImportJob job = importJobService.commit(id);
+            return ResponseEntity.accepted().body(job.snapshot());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "取込処理が混み合っています。しばらくしてから再度お試しください"));
+        }
+    }
+
+    /** エラーCSVダウンロード (ジョブ完了後のみ) */
+    @GetMapping("/{id}/errors.csv")
+    public ResponseEntity<Resource> downloadErrors(@PathVariable String id) {
+        return importJobService.findById(id)
+                .map(job -> {
+                    if (!job.isFinished()) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).<Resource>build();
+                    }
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"import_errors.csv\"")
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .<Resource>body(new FileSystemResource(job.getErrorFile()));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
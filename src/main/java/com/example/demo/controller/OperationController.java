@@ -1,24 +1,29 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AssetScanView;
+import com.example.demo.dto.BatchOperationRequest;
+import com.example.demo.dto.EmployeeScanView;
 import com.example.demo.entity.Assignment;
-import com.example.demo.service.AssetService;
-import com.example.demo.service.EmployeeService;
 import com.example.demo.service.OperationService;
+import com.example.demo.service.ScanLookupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 public class OperationController {
 
+    /** 一括貸出・返却の1リクエストあたりの上限件数 */
+    private static final int MAX_BATCH_ITEMS = 200;
+
     private final OperationService operationService;
-    private final EmployeeService employeeService;
-    private final AssetService assetService;
+    private final ScanLookupService scanLookupService;
 
     /** QRスキャン画面 */
     @GetMapping("/operation")
@@ -26,39 +31,21 @@ public class OperationController {
         return "operation/scan";
     }
 
-    /** API: 社員コードで社員を検索 */
+    /** API: 社員コードで社員を検索 (スキャン照会キャッシュ経由) */
     @GetMapping("/api/employees/by-code/{code}")
     @ResponseBody
-    public ResponseEntity<?> findEmployee(@PathVariable String code) {
-        return employeeService.findByEmployeeCode(code)
-                .map(e -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", e.getId());
-                    map.put("employeeCode", e.getEmployeeCode());
-                    map.put("name", e.getName());
-                    map.put("department", e.getDepartment() != null ? e.getDepartment().getName() : "");
-                    map.put("section", e.getSection() != null ? e.getSection().getName() : "");
-                    return ResponseEntity.ok(map);
-                })
+    public ResponseEntity<EmployeeScanView> findEmployee(@PathVariable String code) {
+        return scanLookupService.findEmployee(code)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    /** API: QRコードIDで資産を検索 */
+    /** API: QRコードIDで資産を検索 (スキャン照会キャッシュ経由。貸出中なら現在の利用者を含む) */
     @GetMapping("/api/assets/by-qr/{qrCodeId}")
     @ResponseBody
-    public ResponseEntity<?> findAsset(@PathVariable String qrCodeId) {
-        return assetService.findByQrCodeId(qrCodeId)
-                .map(a -> {
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    map.put("id", a.getId());
-                    map.put("qrCodeId", a.getQrCodeId());
-                    map.put("productName", a.getProductName());
-                    map.put("modelName", a.getModelName() != null ? a.getModelName() : "");
-                    map.put("serialNumber", a.getSerialNumber() != null ? a.getSerialNumber() : "");
-                    map.put("status", a.getStatus().name());
-                    map.put("statusDisplay", a.getStatus().getDisplayName());
-                    return ResponseEntity.ok(map);
-                })
+    public ResponseEntity<AssetScanView> findAsset(@PathVariable String qrCodeId) {
+        return scanLookupService.findAsset(qrCodeId)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -102,4 +89,29 @@ public class OperationController {
             return ResponseEntity.badRequest().body(result);
         }
     }
+
+    /**
+     * API: 一括貸出・返却。項目ごとの成否を返す (一部が失敗しても成功分はコミットされる)。
+     * 例: {"employeeCode": "EMP001", "qrCodeIds": ["AST-...", "AST-..."]}
+     *     {"items": [{"qrCodeId": "AST-...", "action": "CHECKIN"}, ...]}
+     */
+    @PostMapping("/api/operation/batch")
+    @ResponseBody
+    public ResponseEntity<?> batch(@RequestBody BatchOperationRequest request) {
+        List<BatchOperationRequest.Item> items = request.resolvedItems();
+        if (items.isEmpty() || items.size() > MAX_BATCH_ITEMS) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("success", false);
+            result.put("message", "一括処理の件数は1〜" + MAX_BATCH_ITEMS + "件で指定してください");
+            return ResponseEntity.badRequest().body(result);
+        }
+        try {
+            return ResponseEntity.ok(operationService.executeBatch(request.employeeCode(), items));
+        } catch (RuntimeException e) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("success", false);
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
 }
@@ -1,34 +1,110 @@
 package com.example.demo.controller;
 
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.service.ImportJob;
+import com.example.demo.service.ImportJobService;
+import com.example.demo.service.LabelSheetService;
 import com.example.demo.service.QrCodeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/qrcode")
 @RequiredArgsConstructor
 public class QrCodeController {
 
+    private static final int MIN_SIZE = 50;
+    private static final int MAX_SIZE = 1000;
+
     private final QrCodeService qrCodeService;
+    private final LabelSheetService labelSheetService;
+    private final ImportJobService importJobService;
 
     /**
      * 任意のテキストからQRコード画像 (PNG) を返す
      * 例: /api/qrcode?text=EMP001&size=300
+     * 同じ text / size の画像は変わらないため、強い ETag と長期キャッシュを付けて返す
+     * (If-None-Match が一致すれば画像を生成せず 304)。
      */
     @GetMapping
     public ResponseEntity<byte[]> generate(
             @RequestParam String text,
-            @RequestParam(defaultValue = "250") int size) {
+            @RequestParam(defaultValue = "250") int size,
+            WebRequest webRequest) {
+
+        int clamped = Math.max(MIN_SIZE, Math.min(MAX_SIZE, size));
+        String etag = qrCodeService.etag(text, clamped, clamped);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
 
-        byte[] image = qrCodeService.generateQrCodeImage(text, size, size);
+        byte[] image = qrCodeService.generateQrCodeImage(text, clamped, clamped);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         "inline; filename=\"qrcode.png\"")
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
                 .contentType(MediaType.IMAGE_PNG)
                 .body(image);
     }
+
+    /**
+     * QRコードのラベルシートを一括出力する (A4 のPNGをページごとにまとめた ZIP)。
+     * 対象は次のいずれか1つで指定する。
+     * <ul>
+     *   <li>assetIds: 資産IDの列挙</li>
+     *   <li>jobId: CSV一括登録ジョブで登録された資産</li>
+     *   <li>status: 指定ステータスの資産</li>
+     *   <li>departmentId: 指定部署の社員 (社員番号のQRコード)</li>
+     * </ul>
+     * 例: /api/qrcode/labels?status=STOCK
+     */
+    @GetMapping("/labels")
+    public ResponseEntity<StreamingResponseBody> labels(
+            @RequestParam(required = false) List<Long> assetIds,
+            @RequestParam(required = false) String jobId,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) Long departmentId) {
+
+        long filters = Stream.of(assetIds, jobId, status, departmentId).filter(Objects::nonNull).count();
+        if (filters != 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        LabelSheetService.LabelSource source;
+        if (assetIds != null) {
+            source = labelSheetService.assetsById(assetIds);
+        } else if (jobId != null) {
+            Optional<ImportJob> job = importJobService.findById(jobId)
+                    .filter(j -> j.getType() == ImportJob.Type.ASSET);
+            if (job.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            source = labelSheetService.assetsById(job.get().getCreatedAssetIds());
+        } else if (status != null) {
+            source = labelSheetService.assetsByStatus(status);
+        } else {
+            source = labelSheetService.employeesByDepartment(departmentId);
+        }
+
+        StreamingResponseBody body = out -> labelSheetService.writeZip(source, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qr_labels.zip\"")
+                .cacheControl(CacheControl.noStore())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.entity.Department;
 import com.example.demo.entity.Section;
 import com.example.demo.service.DepartmentService;
+import com.example.demo.service.OrganizationDirectory;
 import com.example.demo.service.SectionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -19,6 +20,7 @@ public class SectionController {
 
     private final SectionService sectionService;
     private final DepartmentService departmentService;
+    private final OrganizationDirectory organizationDirectory;
 
     /** 一覧 */
     @GetMapping
@@ -31,7 +33,7 @@ public class SectionController {
     @GetMapping("/new")
     public String newForm(Model model) {
         model.addAttribute("section", new Section());
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         return "section/form";
     }
 
@@ -56,7 +58,7 @@ public class SectionController {
         Section section = sectionService.findById(id)
                 .orElseThrow(() -> new RuntimeException("課が見つかりません"));
         model.addAttribute("section", section);
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         return "section/form";
     }
 
@@ -93,8 +95,8 @@ public class SectionController {
     @GetMapping("/api/by-department/{departmentId}")
     @ResponseBody
     public List<SectionDto> getByDepartment(@PathVariable Long departmentId) {
-        return sectionService.findByDepartmentId(departmentId).stream()
-                .map(s -> new SectionDto(s.getId(), s.getName()))
+        return organizationDirectory.snapshot().sections(departmentId).stream()
+                .map(s -> new SectionDto(s.id(), s.name()))
                 .toList();
     }
 
@@ -0,0 +1,214 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UploadFileIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * アップロード画像の配信 (/uploads/**)。
+ *
+ * <p>ファイルの情報は UploadFileIndex から引き、ファイルシステムへの stat は行わない。
+ * ハッシュ名の画像は内容が変わらないため immutable で1年キャッシュさせ、
+ * それ以外は ETag で再検証させる。大きいファイルは Tomcat の sendfile でカーネルから直接送り、
+ * 使えない場合は FileChannel.transferTo で送る。Range (単一範囲) と If-Range、
+ * 事前圧縮版 (.br / .gz が置いてあれば) に対応する。
+ */
+@Controller
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final String PREFIX = "/uploads/";
+    private static final Pattern RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    /** これより小さいファイルは sendfile を使わずに書き込む (Tomcat の DefaultServlet と同じ既定値) */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE_CACHE = CacheControl.noCache().getHeaderValue();
+
+    private final UploadFileIndex uploadFileIndex;
+
+    @GetMapping(PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String name = UrlPathHelper.defaultInstance.getPathWithinApplication(request).substring(PREFIX.length());
+        Optional<UploadFileIndex.Entry> found = uploadFileIndex.get(name);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        UploadFileIndex.Entry file = found.get();
+
+        // Range 指定がなければ事前圧縮版を優先する (範囲は元ファイル基準で扱うため圧縮版とは組み合わせない)
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        UploadFileIndex.Entry body = file;
+        String encoding = null;
+        boolean hasVariants = uploadFileIndex.contains(name + ".br") || uploadFileIndex.contains(name + ".gz");
+        if (hasVariants && rangeHeader == null) {
+            String accept = Optional.ofNullable(request.getHeader(HttpHeaders.ACCEPT_ENCODING)).orElse("");
+            if (acceptsEncoding(accept, "br") && uploadFileIndex.contains(name + ".br")) {
+                body = uploadFileIndex.get(name + ".br").orElseThrow();
+                encoding = "br";
+            } else if (acceptsEncoding(accept, "gzip") && uploadFileIndex.contains(name + ".gz")) {
+                body = uploadFileIndex.get(name + ".gz").orElseThrow();
+                encoding = "gzip";
+            }
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE_CACHE : REVALIDATE_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (hasVariants) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(body.etag())) {
+            return;
+        }
+
+        long size = body.size();
+        long start = 0;
+        long end = size - 1;
+        if (rangeHeader != null && ifRangeMatches(request, body.etag())) {
+            long[] range = parseRange(rangeHeader, size);
+            if (range != null && range.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.contentType().toString());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (length >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // 本文はコントローラーから戻った後に Tomcat がカーネルの sendfile で送る
+            request.setAttribute(SENDFILE_FILENAME, body.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(body.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (NoSuchFileException e) {
+            // 索引の更新より先にファイルが消えた
+            uploadFileIndex.remove(name);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Accept-Encoding がその圧縮形式を受け付けるか。トークン名で比べ (大文字小文字は区別しない)、
+     * q=0 は拒否とみなす。名前の指定がなければ * の q 値に従う。
+     */
+    static boolean acceptsEncoding(String header, String coding) {
+        Double named = null;
+        Double wildcard = null;
+        for (String token : header.split(",")) {
+            String[] parts = token.split(";");
+            String name = parts[0].trim();
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(coding)) {
+                named = q;
+            } else if (name.equals("*")) {
+                wildcard = q;
+            }
+        }
+        double q = named != null ? named : wildcard != null ? wildcard : 0;
+        return q > 0;
+    }
+
+    /** If-Range がない、または ETag が一致するときだけ Range を有効にする */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    /**
+     * Range ヘッダー (単一範囲のみ) を解釈する。
+     *
+     * @return [開始, 終了 (含む)]。開始がファイルの外なら長さ0の配列 (416)、
+     *         解釈できない・終了が開始より前・複数範囲の場合は null (ヘッダーを無視して全体を返す)
+     */
+    static long[] parseRange(String header, long size) {
+        Matcher m = RANGE.matcher(header.trim());
+        if (!m.matches() || (m.group(1).isEmpty() && m.group(2).isEmpty())) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (m.group(1).isEmpty()) {
+                // 末尾から N バイト
+                start = Math.max(0, size - Long.parseLong(m.group(2)));
+                end = size - 1;
+            } else {
+                start = Long.parseLong(m.group(1));
+                if (m.group(2).isEmpty()) {
+                    end = size - 1;
+                } else {
+                    end = Long.parseLong(m.group(2));
+                    if (end < start) return null;
+                    end = Math.min(end, size - 1);
+                }
+            }
+            return start >= size ? new long[0] : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
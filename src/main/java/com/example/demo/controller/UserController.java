@@ -2,8 +2,7 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.User;
 import com.example.demo.entity.UserRole;
-import com.example.demo.service.DepartmentService;
-import com.example.demo.service.SectionService;
+import com.example.demo.service.OrganizationDirectory;
 import com.example.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -17,8 +16,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class UserController {
 
     private final UserService userService;
-    private final DepartmentService departmentService;
-    private final SectionService sectionService;
+    private final OrganizationDirectory organizationDirectory;
 
     /** ユーザー一覧 */
     @GetMapping
@@ -31,7 +29,7 @@ public class UserController {
     @GetMapping("/new")
     public String newForm(Model model) {
         model.addAttribute("roles", UserRole.values());
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         return "user/form";
     }
 
@@ -61,10 +59,10 @@ public class UserController {
                 .orElseThrow(() -> new IllegalArgumentException("ユーザーが見つかりません"));
         model.addAttribute("user", user);
         model.addAttribute("roles", UserRole.values());
-        model.addAttribute("departments", departmentService.findAll());
+        model.addAttribute("departments", organizationDirectory.snapshot().departments());
         if (user.getDepartment() != null) {
             model.addAttribute("sections",
-                    sectionService.findByDepartmentId(user.getDepartment().getId()));
+                    organizationDirectory.snapshot().sections(user.getDepartment().getId()));
         }
         return "user/edit";
     }
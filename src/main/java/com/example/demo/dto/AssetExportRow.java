@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+
+import java.time.LocalDate;
+
+/**
+ * 資産CSV出力の1行分 (取込CSVと同じ列 + QRコードID・ステータス・現在の利用者)。
+ * エンティティを生成せずにコンストラクタ式で組み立てるため、件数が多くても永続化コンテキストが膨らまない。
+ */
+public record AssetExportRow(
+        String oldManagementCode,
+        AssetType assetType,
+        String productName,
+        String modelName,
+        String serialNumber,
+        String os,
+        String cpu,
+        String memory,
+        String storage,
+        String spec,
+        LocalDate purchaseDate,
+        String qrCodeId,
+        AssetStatus status,
+        String currentEmployeeCode,
+        String currentEmployeeName) {
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+
+/**
+ * 資産一覧の1行分 (一覧表示に必要な列と現在の利用者名のみ)。
+ * Asset エンティティを生成せずに JPQL のコンストラクタ式で直接組み立てる。
+ */
+public record AssetListRow(
+        Long id,
+        AssetType assetType,
+        String oldManagementCode,
+        String qrCodeId,
+        String productName,
+        String modelName,
+        String serialNumber,
+        String os,
+        String cpu,
+        String memory,
+        String storage,
+        AssetStatus status,
+        String imagePath,
+        String currentEmployeeName) {
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.AssetStatus;
+
+/**
+ * 資産一覧へ配信する1行分の変更。
+ * 貸出・返却ではステータスと利用者だけ、編集では一覧の1行分 (row) も含める。
+ */
+public record AssetLiveUpdate(
+        Long assetId,
+        AssetStatus status,
+        String statusDisplay,
+        String currentEmployeeName,
+        AssetListRow row
+) {
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.AssetStatus;
+
+/**
+ * スキャン画面の資産照会結果 (/api/assets/by-qr)。
+ * キャッシュに載せるため、エンティティを持たない不変の値だけで構成する。
+ * currentEmployee は貸出中なら現在の利用者名 (返却時の確認用)、それ以外は空文字。
+ */
+public record AssetScanView(
+        Long id,
+        String qrCodeId,
+        String productName,
+        String modelName,
+        String serialNumber,
+        AssetStatus status,
+        String statusDisplay,
+        String currentEmployee
+) {
+
+    public static AssetScanView of(Asset asset, String currentEmployee) {
+        return new AssetScanView(asset.getId(), asset.getQrCodeId(), asset.getProductName(),
+                asset.getModelName() != null ? asset.getModelName() : "",
+                asset.getSerialNumber() != null ? asset.getSerialNumber() : "",
+                asset.getStatus(), asset.getStatus().getDisplayName(),
+                currentEmployee != null ? currentEmployee : "");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 貸出履歴の絞り込み条件 (null の項目は絞り込まない)。
+ *
+ * @param from 貸出日の下限 (含む)
+ * @param to   貸出日の上限 (含む)
+ * @param open true = 未返却のみ / false = 返却済みのみ
+ */
+public record AssignmentHistoryFilter(
+        Long employeeId,
+        Long assetId,
+        Long departmentId,
+        LocalDate from,
+        LocalDate to,
+        Boolean open) {
+}
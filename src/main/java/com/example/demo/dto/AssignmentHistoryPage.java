@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 貸出履歴の1ページ分 (新しい順)。
+ *
+ * @param nextCursor 次のページを取得するときに cursor に渡す値。最後のページなら null
+ */
+public record AssignmentHistoryPage(List<AssignmentHistoryRow> items, String nextCursor) {
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 貸出履歴の1行分 (社員・部署・資産の表示に必要な列のみ)。
+ * Assignment エンティティを生成せずに JPQL のコンストラクタ式で直接組み立てる。
+ */
+public record AssignmentHistoryRow(
+        Long id,
+        LocalDate checkoutDate,
+        LocalDate returnDate,
+        String employeeCode,
+        String employeeName,
+        String departmentName,
+        Long assetId,
+        String qrCodeId,
+        String productName,
+        String oldManagementCode) {
+}
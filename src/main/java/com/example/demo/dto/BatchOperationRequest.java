@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import com.example.demo.event.LoanEvent;
+
+import java.util.List;
+
+/**
+ * 一括貸出・返却のリクエスト。次のどちらかの形で受け付ける。
+ * <ul>
+ *   <li>employeeCode + qrCodeIds (+ action 省略時は貸出): 1人に複数台をまとめて貸出</li>
+ *   <li>items: QRコードIDと操作 (CHECKOUT / CHECKIN) の組を列挙。貸出を含む場合は employeeCode も必要</li>
+ * </ul>
+ */
+public record BatchOperationRequest(
+        String employeeCode,
+        LoanEvent.Action action,
+        List<String> qrCodeIds,
+        List<Item> items
+) {
+
+    public record Item(String qrCodeId, LoanEvent.Action action) {
+    }
+
+    /** どちらの形で受け取っても (QRコードID, 操作) の列にそろえる */
+    public List<Item> resolvedItems() {
+        LoanEvent.Action defaultAction = action != null ? action : LoanEvent.Action.CHECKOUT;
+        if (items != null) {
+            return items.stream()
+                    .map(item -> new Item(item.qrCodeId(), item.action() != null ? item.action() : defaultAction))
+                    .toList();
+        }
+        if (qrCodeIds != null) {
+            return qrCodeIds.stream().map(qr -> new Item(qr, defaultAction)).toList();
+        }
+        return List.of();
+    }
+}
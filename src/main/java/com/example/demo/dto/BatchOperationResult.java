@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import com.example.demo.event.LoanEvent;
+
+import java.util.List;
+
+/**
+ * 一括貸出・返却の結果。成功した項目はまとめて1トランザクションでコミット済み、
+ * 失敗した項目 (存在しない・ステータス不一致など) は何も変更していない。
+ */
+public record BatchOperationResult(
+        int successCount,
+        int errorCount,
+        List<ItemResult> results
+) {
+
+    public record ItemResult(String qrCodeId, LoanEvent.Action action, boolean success, String message) {
+    }
+
+    public static BatchOperationResult of(List<ItemResult> results) {
+        int success = (int) results.stream().filter(ItemResult::success).count();
+        return new BatchOperationResult(success, results.size() - success, results);
+    }
+}
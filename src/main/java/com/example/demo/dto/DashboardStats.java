@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * ダッシュボードの集計値 (不変スナップショット)。
+ *
+ * @param activeByDepartment 部署名 → 貸出中件数 (部署未設定の社員は「未所属」)
+ * @param overdueAssignments 長期貸出 (貸出日から一定日数を超えて未返却) の件数
+ */
+public record DashboardStats(long totalAssets,
+                             long totalEmployees,
+                             long activeAssignments,
+                             long overdueAssignments,
+                             Map<AssetStatus, Long> byStatus,
+                             Map<AssetType, Long> byType,
+                             Map<String, Long> activeByDepartment,
+                             Instant reconciledAt) {
+}
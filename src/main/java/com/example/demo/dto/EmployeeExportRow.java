@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+/**
+ * 社員CSV出力の1行分 (取込CSVと同じ列 + 部署名・課名)。
+ */
+public record EmployeeExportRow(
+        String employeeCode,
+        String name,
+        Long departmentId,
+        Long sectionId,
+        String departmentName,
+        String sectionName) {
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Employee;
+
+/**
+ * スキャン画面の社員照会結果 (/api/employees/by-code)。
+ * キャッシュに載せるため、エンティティを持たない不変の値だけで構成する。
+ */
+public record EmployeeScanView(
+        Long id,
+        String employeeCode,
+        String name,
+        String department,
+        String section
+) {
+
+    public static EmployeeScanView of(Employee employee) {
+        return new EmployeeScanView(employee.getId(), employee.getEmployeeCode(), employee.getName(),
+                employee.getDepartment() != null ? employee.getDepartment().getName() : "",
+                employee.getSection() != null ? employee.getSection().getName() : "");
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+/**
+ * ラベル1枚分 (QRコードに埋め込む値とその下に印字する文字列)。
+ * 資産なら QRコードID と品名、社員なら社員番号と氏名。
+ */
+public record LabelItem(
+        Long id,
+        String code,
+        String caption
+) {
+}
@@ -2,17 +2,30 @@ package com.example.demo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "assets")
+@Table(name = "assets", indexes = {
+        @Index(name = "idx_assets_status_type", columnList = "status, asset_type"),
+        @Index(name = "idx_assets_product_name", columnList = "product_name"),
+        @Index(name = "idx_assets_model_name", columnList = "model_name")
+})
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 public class Asset {
 
+    /** ID 採番の先取り件数 (DataInitializer のシーケンス補正でも使用) */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * ID はシーケンス (MySQL ではテーブル assets_seq でエミュレート) から 50 件単位で先取りする。
+     * IDENTITY だと INSERT ごとに採番が必要で JDBC バッチが効かないため。
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_seq")
+    @SequenceGenerator(name = "asset_seq", sequenceName = "assets_seq", allocationSize = Asset.ID_ALLOCATION_SIZE)
     private Long id;
 
     /** 資産種別 (PC / 携帯) */
@@ -68,4 +81,13 @@ public class Asset {
 
     /** 製品画像パス */
     private String imagePath;
+
+    /**
+     * 楽観ロック用のバージョン。貸出・返却や編集が同時に行われた場合、
+     * 後からコミットした側が失敗する (編集フォームは hidden で持ち回る)。
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
@@ -6,13 +6,26 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "assignments")
+@Table(name = "assignments", indexes = {
+        @Index(name = "idx_assignments_asset_return", columnList = "asset_id, return_date"),
+        // 履歴のキーセットページング (貸出日・ID の降順) 用。条件ごとに先頭列を変えて範囲走査で済ませる
+        @Index(name = "idx_assignments_checkout", columnList = "checkout_date, id"),
+        @Index(name = "idx_assignments_employee_checkout", columnList = "employee_id, checkout_date, id"),
+        @Index(name = "idx_assignments_asset_checkout", columnList = "asset_id, checkout_date, id"),
+        @Index(name = "idx_assignments_return_checkout", columnList = "return_date, checkout_date, id")
+})
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 public class Assignment {
 
+    /** ID 採番の先取り件数 (DataInitializer のシーケンス補正でも使用) */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /** 一括貸出・返却で INSERT を JDBC バッチにまとめるため、Asset と同じくシーケンスで先取り採番する */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_seq")
+    @SequenceGenerator(name = "assignment_seq", sequenceName = "assignments_seq",
+            allocationSize = Assignment.ID_ALLOCATION_SIZE)
     private Long id;
 
     /** 社員 */
@@ -31,4 +44,18 @@ public class Assignment {
 
     /** 返却日 (null = 貸出中) */
     private LocalDate returnDate;
+
+    /**
+     * 貸出中の間だけ資産IDを持つ列 (返却済みは null)。
+     * 一意制約により「1資産につき貸出中の履歴は1件まで」をDBで保証する
+     * (MySQL には部分インデックスがないため、null が重複可能な一意制約で代用)。
+     */
+    @Column(unique = true)
+    private Long openAssetId;
+
+    @PrePersist
+    @PreUpdate
+    void syncOpenAssetId() {
+        openAssetId = returnDate == null && asset != null ? asset.getId() : null;
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 名前付きの採番カウンタ (1系列 = 1行)。
+ * 複数インスタンスから行ロックを取って next_value を進め、番号をブロック単位で払い出す。
+ */
+@Entity
+@Table(name = "id_sequences")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class IdSequence {
+
+    /** 系列名 (例: qr_code_id) */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /** 次に払い出す番号 */
+    @Column(nullable = false)
+    private long nextValue;
+}
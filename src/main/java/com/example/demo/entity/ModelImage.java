@@ -0,0 +1,23 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 型名ごとの代表画像。
+ * 同じ型名の資産を登録するとき、画像が未設定ならこの画像を使う。
+ */
+@Entity
+@Table(name = "model_images")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class ModelImage {
+
+    /** 型名 */
+    @Id
+    private String modelName;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "image_sha256", nullable = false)
+    private StoredImage image;
+}
@@ -0,0 +1,36 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 保存済みの画像 (内容1つ = 1行)。
+ * 資産と型名の代表画像からの参照数を持ち、参照がなくなった画像は定期的に削除する。
+ */
+@Entity
+@Table(name = "stored_images", indexes = {
+        @Index(name = "idx_stored_images_ref_count", columnList = "ref_count")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class StoredImage {
+
+    /** 内容の SHA-256 (16進64文字) */
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    /** アップロードディレクトリ内のファイル名 (SHA-256 + 拡張子) */
+    @Column(nullable = false, unique = true)
+    private String fileName;
+
+    /** 参照数 (この画像を使う資産の数 + 代表画像にしている型名の数) */
+    @Column(nullable = false)
+    private long refCount;
+
+    /** 最後にアップロードされた日時 (参照されないまま猶予期間を過ぎたら削除対象) */
+    @Column(nullable = false)
+    private LocalDateTime uploadedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+
+/**
+ * 資産の登録・更新・削除 (画面からの個別操作) を通知するイベント。
+ * 変更前 / 変更後のステータスと種別を持ち、集計の差分更新に使う。
+ */
+public record AssetChangedEvent(ChangeType changeType,
+                                Long assetId,
+                                String qrCodeId,
+                                AssetStatus oldStatus,
+                                AssetType oldType,
+                                AssetStatus newStatus,
+                                AssetType newType) {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    public static AssetChangedEvent created(Asset asset) {
+        return new AssetChangedEvent(ChangeType.CREATED, asset.getId(), asset.getQrCodeId(),
+                null, null, asset.getStatus(), asset.getAssetType());
+    }
+
+    public static AssetChangedEvent updated(Long assetId, AssetStatus oldStatus, AssetType oldType, Asset asset) {
+        return new AssetChangedEvent(ChangeType.UPDATED, assetId, asset.getQrCodeId(),
+                oldStatus, oldType, asset.getStatus(), asset.getAssetType());
+    }
+
+    public static AssetChangedEvent deleted(Asset asset) {
+        return new AssetChangedEvent(ChangeType.DELETED, asset.getId(), asset.getQrCodeId(),
+                asset.getStatus(), asset.getAssetType(), null, null);
+    }
+}
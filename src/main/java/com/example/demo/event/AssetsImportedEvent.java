@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.AssetType;
+
+import java.util.Map;
+
+/**
+ * CSV一括登録で資産がまとめて登録されたことを通知するイベント (1チャンクにつき1件)。
+ * 取込資産はすべて在庫ステータスで登録される。
+ */
+public record AssetsImportedEvent(Map<AssetType, Long> countsByType) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * 社員の登録・更新・削除を通知するイベント。
+ */
+public record EmployeeChangedEvent(ChangeType changeType, Long employeeId) {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+}
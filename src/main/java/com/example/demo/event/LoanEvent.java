@@ -0,0 +1,18 @@
+package com.example.demo.event;
+
+import java.time.LocalDate;
+
+/**
+ * 貸出 (チェックアウト) / 返却 (チェックイン) を通知するイベント。
+ * 貸出で資産は在庫→使用中、返却で使用中→在庫に変わる。
+ */
+public record LoanEvent(Action action,
+                        Long assetId,
+                        String qrCodeId,
+                        Long employeeId,
+                        String employeeName,
+                        String departmentName,
+                        LocalDate checkoutDate) {
+
+    public enum Action { CHECKOUT, CHECKIN }
+}
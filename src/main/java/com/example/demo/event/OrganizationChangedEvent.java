@@ -0,0 +1,8 @@
+package com.example.demo.event;
+
+/**
+ * 部署・課の登録・更新・削除を通知するイベント。
+ * 社員に紐づく部署名・課名をキャッシュしている箇所はこれを受けて破棄する。
+ */
+public record OrganizationChangedEvent() {
+}
@@ -1,12 +1,125 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.AssetListRow;
+import com.example.demo.dto.LabelItem;
 import com.example.demo.entity.Asset;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AssetRepository extends JpaRepository<Asset, Long> {
     Optional<Asset> findByQrCodeId(String qrCodeId);
+
+    /** QRコードIDでまとめて検索 (一括貸出・返却用) */
+    List<Asset> findByQrCodeIdIn(Collection<String> qrCodeIds);
+
     Optional<Asset> findByOldManagementCode(String oldManagementCode);
-    Optional<Asset> findFirstByModelNameAndImagePathIsNotNull(String modelName);
+
+    /** この画像を使っている資産があるか (画像削除前の確認用) */
+    boolean existsByImagePath(String imagePath);
+
+    /** この画像を使っている資産の数 */
+    long countByImagePath(String imagePath);
+
+    /** 画像ごとの利用資産数 ([画像パス, Long]、画像カタログの初期作成用) */
+    @Query("select a.imagePath, count(a) from Asset a where a.imagePath is not null group by a.imagePath")
+    List<Object[]> countGroupByImagePath();
+
+    /** 型名ごとの画像 ([型名, 画像パス]、画像カタログの初期作成用) */
+    @Query("select a.modelName, min(a.imagePath) from Asset a "
+            + "where a.modelName is not null and a.modelName <> '' and a.imagePath is not null "
+            + "group by a.modelName")
+    List<Object[]> findImagePathGroupByModelName();
+
+    /** 画像パスを一括で付け替える (画像カタログの初期作成用) */
+    @Modifying
+    @Query("update Asset a set a.imagePath = :to where a.imagePath = :from")
+    int replaceImagePath(@Param("from") String from, @Param("to") String to);
+
+    /** 登録済みの製造番号一覧 (CSV取込時の重複チェック用) */
+    @Query("select a.serialNumber from Asset a where a.serialNumber is not null")
+    List<String> findAllSerialNumbers();
+
+    /** 登録済みの旧管理No一覧 (CSV取込時の重複チェック用) */
+    @Query("select a.oldManagementCode from Asset a where a.oldManagementCode is not null")
+    List<String> findAllOldManagementCodes();
+
+    /** ラベル印刷用 (ID指定) */
+    @Query("select new com.example.demo.dto.LabelItem(a.id, a.qrCodeId, a.productName) "
+            + "from Asset a where a.id in :ids order by a.id")
+    List<LabelItem> findLabelItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** ラベル印刷用 (ステータス指定)。afterId より大きいIDを limit 件ずつ読む */
+    @Query("select new com.example.demo.dto.LabelItem(a.id, a.qrCodeId, a.productName) "
+            + "from Asset a where a.status = :status and a.id > :afterId order by a.id")
+    List<LabelItem> findLabelItemsByStatus(@Param("status") AssetStatus status,
+                                           @Param("afterId") long afterId, Limit limit);
+
+    /** ステータス別件数 ([AssetStatus, Long]) */
+    @Query("select a.status, count(a) from Asset a group by a.status")
+    List<Object[]> countGroupByStatus();
+
+    /** 種別別件数 ([AssetType, Long]) */
+    @Query("select a.assetType, count(a) from Asset a group by a.assetType")
+    List<Object[]> countGroupByAssetType();
+
+    /** 資産一覧の1行分 (一覧画面への変更配信用) */
+    @Query("""
+            select new com.example.demo.dto.AssetListRow(
+                a.id, a.assetType, a.oldManagementCode, a.qrCodeId, a.productName, a.modelName,
+                a.serialNumber, a.os, a.cpu, a.memory, a.storage, a.status, a.imagePath, e.name)
+            from Asset a
+            left join Assignment asg on asg.asset = a and asg.returnDate is null
+            left join asg.employee e
+            where a.id = :id
+            """)
+    Optional<AssetListRow> findListRowById(@Param("id") Long id);
+
+    /**
+     * 資産一覧の検索 (1ページ分だけ DTO で取得)。
+     * keyword は前方一致パターン (末尾 %、エスケープ文字 !) で、null なら絞り込まない。
+     * 現在の利用者は貸出中レコードとの外部結合で同時に取得する。
+     */
+    @Query(value = """
+            select new com.example.demo.dto.AssetListRow(
+                a.id, a.assetType, a.oldManagementCode, a.qrCodeId, a.productName, a.modelName,
+                a.serialNumber, a.os, a.cpu, a.memory, a.storage, a.status, a.imagePath, e.name)
+            from Asset a
+            left join Assignment asg on asg.asset = a and asg.returnDate is null
+            left join asg.employee e
+            where (:status is null or a.status = :status)
+              and (:assetType is null or a.assetType = :assetType)
+              and (:keyword is null
+                   or a.qrCodeId like :keyword escape '!'
+                   or a.oldManagementCode like :keyword escape '!'
+                   or a.serialNumber like :keyword escape '!'
+                   or a.productName like :keyword escape '!'
+                   or a.modelName like :keyword escape '!')
+            order by a.id
+            """,
+            countQuery = """
+            select count(a) from Asset a
+            where (:status is null or a.status = :status)
+              and (:assetType is null or a.assetType = :assetType)
+              and (:keyword is null
+                   or a.qrCodeId like :keyword escape '!'
+                   or a.oldManagementCode like :keyword escape '!'
+                   or a.serialNumber like :keyword escape '!'
+                   or a.productName like :keyword escape '!'
+                   or a.modelName like :keyword escape '!')
+            """)
+    Page<AssetListRow> searchListRows(@Param("keyword") String keyword,
+                                      @Param("status") AssetStatus status,
+                                      @Param("assetType") AssetType assetType,
+                                      Pageable pageable);
 }
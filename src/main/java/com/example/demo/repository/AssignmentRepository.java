@@ -3,21 +3,52 @@ package com.example.demo.repository;
 import com.example.demo.entity.Asset;
 import com.example.demo.entity.Assignment;
 import com.example.demo.entity.Employee;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
-    /** 指定資産の貸出中レコード (returnDate が null) */
+    /** 指定資産の貸出中レコード (returnDate が null。返却通知用に社員・部署も同時に取得) */
+    @EntityGraph(attributePaths = {"employee", "employee.department"})
     Optional<Assignment> findByAssetAndReturnDateIsNull(Asset asset);
 
-    /** 指定社員の貸出中レコード一覧 */
+    /**
+     * 指定資産IDの貸出中レコード (社員も同時に取得)。
+     * idx_assignments_asset_return (asset_id, return_date) の1行参照で済み、貸出件数に依存しない。
+     */
+    @EntityGraph(attributePaths = "employee")
+    Optional<Assignment> findByAssetIdAndReturnDateIsNull(Long assetId);
+
+    /** 指定資産IDの貸出中レコードをまとめて取得 (一括返却用。社員・部署も同時に取得) */
+    @EntityGraph(attributePaths = {"employee", "employee.department"})
+    List<Assignment> findByAssetIdInAndReturnDateIsNull(Collection<Long> assetIds);
+
+    /** 指定社員の貸出中レコード一覧 (資産も同時に取得) */
+    @EntityGraph(attributePaths = "asset")
     List<Assignment> findByEmployeeAndReturnDateIsNull(Employee employee);
 
-    /** 現在貸出中の全レコード */
+    /** 現在貸出中の全レコード (社員・資産も同時に取得) */
+    @EntityGraph(attributePaths = {"employee", "asset"})
     List<Assignment> findByReturnDateIsNull();
 
-    /** 全履歴 (新しい順) */
-    List<Assignment> findAllByOrderByCheckoutDateDesc();
+    /** 現在貸出中の件数 */
+    long countByReturnDateIsNull();
+
+    /** 指定日より前に貸し出され、まだ返却されていない件数 (長期貸出) */
+    long countByReturnDateIsNullAndCheckoutDateBefore(LocalDate date);
+
+    /** 部署別の貸出中件数 ([部署名 (null = 未所属), Long]) */
+    @Query("""
+            select d.name, count(asg) from Assignment asg
+            join asg.employee e
+            left join e.department d
+            where asg.returnDate is null
+            group by d.name
+            """)
+    List<Object[]> countActiveGroupByDepartment();
 }
@@ -1,12 +1,19 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.Department;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
 
+    /** 全部署 (一覧の課数表示用に課も同時に取得) */
+    @Override
+    @EntityGraph(attributePaths = "sections")
+    List<Department> findAll();
+
     Optional<Department> findByName(String name);
 
     boolean existsByName(String name);
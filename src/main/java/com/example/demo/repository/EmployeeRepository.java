@@ -1,10 +1,38 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.LabelItem;
 import com.example.demo.entity.Employee;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+
+    /** 社員番号で検索 (部署・課も同時に取得) */
+    @EntityGraph(attributePaths = {"department", "section"})
     Optional<Employee> findByEmployeeCode(String employeeCode);
+
+    /** 全社員 (一覧表示用に部署・課も同時に取得) */
+    @Override
+    @EntityGraph(attributePaths = {"department", "section"})
+    List<Employee> findAll();
+
+    /** IDで検索 (詳細・編集画面用に部署・課も同時に取得) */
+    @EntityGraph(attributePaths = {"department", "section"})
+    Optional<Employee> findWithDepartmentAndSectionById(Long id);
+
+    /** 登録済みの社員番号一覧 (CSV取込時の重複チェック用) */
+    @Query("select e.employeeCode from Employee e")
+    List<String> findAllEmployeeCodes();
+
+    /** ラベル印刷用 (部署指定)。afterId より大きいIDを limit 件ずつ読む */
+    @Query("select new com.example.demo.dto.LabelItem(e.id, e.employeeCode, e.name) "
+            + "from Employee e where e.department.id = :departmentId and e.id > :afterId order by e.id")
+    List<LabelItem> findLabelItemsByDepartment(@Param("departmentId") Long departmentId,
+                                               @Param("afterId") long afterId, Limit limit);
 }
@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.IdSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.Optional;
+
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    /** 行ロック (SELECT ... FOR UPDATE) を取って系列を取得する */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<IdSequence> findForUpdateByName(String name);
+}
@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ModelImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ModelImageRepository extends JpaRepository<ModelImage, String> {
+
+    /** 型名の代表画像のファイル名 */
+    @Query("select i.fileName from ModelImage m join m.image i where m.modelName = :modelName")
+    Optional<String> findFileNameByModelName(@Param("modelName") String modelName);
+
+    /** 全型名の代表画像 ([型名, ファイル名]、CSV取込時に一括で読み込む) */
+    @Query("select m.modelName, i.fileName from ModelImage m join m.image i")
+    List<Object[]> findAllFileNames();
+}
@@ -1,6 +1,7 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.Section;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -8,6 +9,15 @@ import java.util.Optional;
 
 public interface SectionRepository extends JpaRepository<Section, Long> {
 
+    /** 全課 (一覧表示用に部署も同時に取得) */
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Section> findAll();
+
+    /** IDで検索 (編集画面用に部署も同時に取得) */
+    @EntityGraph(attributePaths = "department")
+    Optional<Section> findWithDepartmentById(Long id);
+
     List<Section> findByDepartmentId(Long departmentId);
 
     Optional<Section> findByNameAndDepartmentId(String name, Long departmentId);
@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    Optional<StoredImage> findByFileName(String fileName);
+
+    /** 参照数を増減する (読み込まずに UPDATE 1回で行う) */
+    @Modifying
+    @Query("update StoredImage s set s.refCount = s.refCount + :delta where s.fileName = :fileName")
+    int addReferences(@Param("fileName") String fileName, @Param("delta") long delta);
+
+    /** 参照数を実数に合わせる */
+    @Modifying
+    @Query("update StoredImage s set s.refCount = :refCount where s.sha256 = :sha256")
+    int resetReferences(@Param("sha256") String sha256, @Param("refCount") long refCount);
+
+    /** 参照されないまま猶予期間を過ぎた画像 */
+    @Query("select s from StoredImage s where s.refCount <= 0 and s.uploadedAt < :before")
+    List<StoredImage> findUnreferencedBefore(@Param("before") LocalDateTime before);
+
+    /** 参照されていなければ削除する (削除した件数を返す) */
+    @Modifying
+    @Query("delete from StoredImage s where s.sha256 = :sha256 and s.refCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+}
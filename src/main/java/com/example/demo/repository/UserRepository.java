@@ -1,12 +1,23 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /** 全ユーザー (一覧表示用に部署・課も同時に取得) */
+    @Override
+    @EntityGraph(attributePaths = {"department", "section"})
+    List<User> findAll();
+
+    /** IDで検索 (編集画面用に部署・課も同時に取得) */
+    @EntityGraph(attributePaths = {"department", "section"})
+    Optional<User> findWithDepartmentAndSectionById(Long id);
+
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
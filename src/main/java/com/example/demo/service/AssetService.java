@@ -1,11 +1,19 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AssetListRow;
 import com.example.demo.entity.Asset;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
 import com.example.demo.entity.Assignment;
+import com.example.demo.event.AssetChangedEvent;
 import com.example.demo.repository.AssetRepository;
 import com.example.demo.repository.AssignmentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 
@@ -15,23 +23,40 @@ public class AssetService {
 
     private final AssetRepository assetRepository;
     private final AssignmentRepository assignmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QrCodeIdAllocator qrCodeIdAllocator;
+    private final ImageCatalogService imageCatalogService;
 
     /**
-     * ランダムなQRコードIDを自動生成 (例: AST-A3B2C1D4)
-     * 重複しないよう確認してから返す
+     * QRコードIDを発行する (例: AST-G000001A)。
+     * 予約済みブロックから払い出すため、通常はDBに問い合わせない。
      */
     public String generateQrCodeId() {
-        String id;
-        do {
-            id = "AST-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (assetRepository.findByQrCodeId(id).isPresent());
-        return id;
+        return qrCodeIdAllocator.nextId();
     }
 
     public List<Asset> findAll() {
         return assetRepository.findAll();
     }
 
+    /**
+     * 資産一覧を1ページ分検索する。
+     * keyword は QRコードID / 旧管理No / 製造番号 / 品名 / 型名 の前方一致。
+     */
+    public Page<AssetListRow> searchList(String keyword, AssetStatus status, AssetType assetType,
+                                         Pageable pageable) {
+        return assetRepository.searchListRows(prefixPattern(keyword), status, assetType, pageable);
+    }
+
+    /** 検索キーワードを前方一致の LIKE パターン (エスケープ文字 !) にする。空なら null */
+    public static String prefixPattern(String keyword) {
+        if (keyword == null || keyword.isBlank()) return null;
+        return keyword.trim()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+    }
+
     public Optional<Asset> findById(Long id) {
         return assetRepository.findById(id);
     }
@@ -40,40 +65,57 @@ public class AssetService {
         return assetRepository.findByQrCodeId(qrCodeId);
     }
 
+    /**
+     * 資産を保存する。画像が変わった場合は画像カタログの参照数も同じトランザクションで付け替え、
+     * 型名の代表画像が未登録ならこの資産の画像を登録する。
+     */
+    @Transactional
     public Asset save(Asset asset) {
-        return assetRepository.save(asset);
+        // 代表画像の登録は独立したトランザクションで行うため、画像の行を更新する前に済ませる
+        imageCatalogService.assignModelImageIfAbsent(asset.getModelName(), asset.getImagePath());
+        if (asset.getId() == null) {
+            Asset saved = assetRepository.save(asset);
+            imageCatalogService.acquire(saved.getImagePath(), 1);
+            eventPublisher.publishEvent(AssetChangedEvent.created(saved));
+            return saved;
+        }
+        // 集計の差分更新用に変更前のステータス・種別を控えておく
+        Optional<Asset> before = assetRepository.findById(asset.getId());
+        AssetStatus oldStatus = before.map(Asset::getStatus).orElse(null);
+        AssetType oldType = before.map(Asset::getAssetType).orElse(null);
+        String oldImagePath = before.map(Asset::getImagePath).orElse(null);
+        Asset saved = assetRepository.save(asset);
+        if (!Objects.equals(oldImagePath, saved.getImagePath())) {
+            imageCatalogService.acquire(saved.getImagePath(), 1);
+            imageCatalogService.release(oldImagePath);
+        }
+        eventPublisher.publishEvent(before.isPresent()
+                ? AssetChangedEvent.updated(saved.getId(), oldStatus, oldType, saved)
+                : AssetChangedEvent.created(saved));
+        return saved;
     }
 
+    @Transactional
     public void deleteById(Long id) {
-        assetRepository.deleteById(id);
+        assetRepository.findById(id).ifPresent(asset -> {
+            assetRepository.delete(asset);
+            imageCatalogService.release(asset.getImagePath());
+            eventPublisher.publishEvent(AssetChangedEvent.deleted(asset));
+        });
     }
 
     /**
-     * 同じ型名を持つ既存資産から画像パスを取得する。
+     * 型名の代表画像のパスを取得する (画像カタログを主キーで引く)。
      * 見つからなければ empty。
      */
     public Optional<String> findImagePathByModelName(String modelName) {
-        if (modelName == null || modelName.isBlank()) return Optional.empty();
-        return assetRepository.findFirstByModelNameAndImagePathIsNotNull(modelName)
-                .map(Asset::getImagePath);
-    }
-
-    /**
-     * 資産ID → 現在の貸出情報 のマップを取得 (一覧画面で使用者を表示するため)
-     */
-    public Map<Long, Assignment> getCurrentAssignmentMap() {
-        List<Assignment> active = assignmentRepository.findByReturnDateIsNull();
-        Map<Long, Assignment> map = new HashMap<>();
-        for (Assignment a : active) {
-            map.put(a.getAsset().getId(), a);
-        }
-        return map;
+        return imageCatalogService.findByModelName(modelName);
     }
 
     /**
-     * 全履歴 (新しい順)
+     * 指定資産の現在の貸出情報 (利用者) を取得する。貸出中でなければ empty。
      */
-    public List<Assignment> findAllAssignments() {
-        return assignmentRepository.findAllByOrderByCheckoutDateDesc();
+    public Optional<Assignment> findCurrentAssignment(Long assetId) {
+        return assignmentRepository.findByAssetIdAndReturnDateIsNull(assetId);
     }
 }
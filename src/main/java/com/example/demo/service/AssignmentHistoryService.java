@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssignmentHistoryFilter;
+import com.example.demo.dto.AssignmentHistoryPage;
+import com.example.demo.dto.AssignmentHistoryRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 貸出履歴の検索 (新しい順、(貸出日, ID) のキーセットページング)。
+ *
+ * <p>OFFSET を使わず「前ページ最後の行より古いもの」を上限件数だけ読むため、何ページ目でも
+ * インデックスの範囲走査1回で済む。条件は指定されたものだけを WHERE に入れ、
+ * 社員・資産・未返却の指定に応じて assignments の複合インデックス
+ * (employee_id / asset_id / return_date + checkout_date, id) が使われるようにする。
+ * 部署の指定は社員との結合で絞り込む。
+ */
+@Service
+@RequiredArgsConstructor
+public class AssignmentHistoryService {
+
+    /** 1ページの上限件数 */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final EntityManager entityManager;
+
+    /**
+     * 1ページ分を取得する。
+     *
+     * @param cursor 前ページの nextCursor (先頭ページは null)
+     * @throws IllegalArgumentException cursor の形式が不正
+     */
+    @Transactional(readOnly = true)
+    public AssignmentHistoryPage findPage(AssignmentHistoryFilter filter, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // 1件余分に読んで次ページの有無を判定する
+        List<AssignmentHistoryRow> rows = createQuery(filter, Cursor.parse(cursor))
+                .setMaxResults(limit + 1)
+                .getResultList();
+        if (rows.size() <= limit) {
+            return new AssignmentHistoryPage(rows, null);
+        }
+        List<AssignmentHistoryRow> page = List.copyOf(rows.subList(0, limit));
+        return new AssignmentHistoryPage(page, Cursor.of(page.get(limit - 1)).format());
+    }
+
+    /** 条件に合う履歴を新しい順に読むクエリ (CSV出力ではこれをカーソルで全件読む) */
+    public TypedQuery<AssignmentHistoryRow> createQuery(AssignmentHistoryFilter filter) {
+        return createQuery(filter, null);
+    }
+
+    private TypedQuery<AssignmentHistoryRow> createQuery(AssignmentHistoryFilter filter, Cursor after) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.employeeId() != null) {
+            conditions.add("asg.employee.id = :employeeId");
+            params.put("employeeId", filter.employeeId());
+        }
+        if (filter.assetId() != null) {
+            conditions.add("asg.asset.id = :assetId");
+            params.put("assetId", filter.assetId());
+        }
+        if (filter.departmentId() != null) {
+            conditions.add("d.id = :departmentId");
+            params.put("departmentId", filter.departmentId());
+        }
+        if (filter.from() != null) {
+            conditions.add("asg.checkoutDate >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("asg.checkoutDate <= :to");
+            params.put("to", filter.to());
+        }
+        if (filter.open() != null) {
+            conditions.add(filter.open() ? "asg.returnDate is null" : "asg.returnDate is not null");
+        }
+        if (after != null) {
+            conditions.add("(asg.checkoutDate < :afterDate"
+                    + " or (asg.checkoutDate = :afterDate and asg.id < :afterId))");
+            params.put("afterDate", after.checkoutDate());
+            params.put("afterId", after.id());
+        }
+
+        String jpql = """
+                select new com.example.demo.dto.AssignmentHistoryRow(
+                    asg.id, asg.checkoutDate, asg.returnDate, e.employeeCode, e.name, d.name,
+                    a.id, a.qrCodeId, a.productName, a.oldManagementCode)
+                from Assignment asg
+                join asg.employee e
+                left join e.department d
+                join asg.asset a
+                """
+                + (conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions) + "\n")
+                + "order by asg.checkoutDate desc, asg.id desc";
+        TypedQuery<AssignmentHistoryRow> query = entityManager.createQuery(jpql, AssignmentHistoryRow.class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    /** ページの区切り位置 (最後に返した行の貸出日と ID)。文字列では "2025-04-01:123" の形式 */
+    record Cursor(LocalDate checkoutDate, long id) {
+
+        static Cursor of(AssignmentHistoryRow row) {
+            return new Cursor(row.checkoutDate(), row.id());
+        }
+
+        static Cursor parse(String value) {
+            if (value == null || value.isBlank()) return null;
+            int colon = value.indexOf(':');
+            try {
+                if (colon < 0) throw new IllegalArgumentException();
+                return new Cursor(LocalDate.parse(value.substring(0, colon)), Long.parseLong(value.substring(colon + 1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("cursor の形式が正しくありません: " + value);
+            }
+        }
+
+        String format() {
+            return checkoutDate + ":" + id;
+        }
+    }
+}
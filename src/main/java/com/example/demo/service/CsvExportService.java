@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetExportRow;
+import com.example.demo.dto.AssignmentHistoryFilter;
+import com.example.demo.dto.AssignmentHistoryRow;
+import com.example.demo.dto.EmployeeExportRow;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 資産・社員・貸出履歴の CSV 出力。
+ *
+ * <p>行はコンストラクタ式の DTO としてカーソルで1件ずつ読み、そのままレスポンスへ書き出す。
+ * 一覧をリストに溜めないため、件数によらずメモリ使用量は一定。MySQL では fetch size を
+ * Integer.MIN_VALUE にすると行単位のストリーミング取得になる (app.export.fetch-size)。
+ * 文字コードは取込 (CsvService.createReader) と同じく BOM 付き UTF-8 か Windows-31J。
+ */
+@Service
+public class CsvExportService {
+
+    /** 出力する文字コード */
+    public enum Encoding {
+        /** BOM 付き UTF-8 */
+        UTF8(StandardCharsets.UTF_8, "UTF-8"),
+        /** Shift-JIS (Excel の既定) */
+        SJIS(Charset.forName("Windows-31J"), "Shift_JIS");
+
+        private final Charset charset;
+        private final String httpName;
+
+        Encoding(Charset charset, String httpName) {
+            this.charset = charset;
+            this.httpName = httpName;
+        }
+
+        /** Content-Type の charset に書く名前 */
+        public String getHttpName() {
+            return httpName;
+        }
+    }
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final AssignmentHistoryService assignmentHistoryService;
+    private final int fetchSize;
+
+    public CsvExportService(EntityManager entityManager,
+                            AssignmentHistoryService assignmentHistoryService,
+                            @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.assignmentHistoryService = assignmentHistoryService;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 資産を出力する (一覧画面と同じ絞り込み)。
+     *
+     * @return 出力した行数 (ヘッダーを除く)
+     */
+    @Transactional(readOnly = true)
+    public int writeAssets(String keyword, AssetStatus status, AssetType assetType,
+                           Encoding encoding, OutputStream out) throws IOException {
+        TypedQuery<AssetExportRow> query = entityManager.createQuery("""
+                select new com.example.demo.dto.AssetExportRow(
+                    a.oldManagementCode, a.assetType, a.productName, a.modelName, a.serialNumber,
+                    a.os, a.cpu, a.memory, a.storage, a.spec, a.purchaseDate,
+                    a.qrCodeId, a.status, e.employeeCode, e.name)
+                from Asset a
+                left join Assignment asg on asg.asset = a and asg.returnDate is null
+                left join asg.employee e
+                where (:status is null or a.status = :status)
+                  and (:assetType is null or a.assetType = :assetType)
+                  and (:keyword is null
+                       or a.qrCodeId like :keyword escape '!'
+                       or a.oldManagementCode like :keyword escape '!'
+                       or a.serialNumber like :keyword escape '!'
+                       or a.productName like :keyword escape '!'
+                       or a.modelName like :keyword escape '!')
+                order by a.id
+                """, AssetExportRow.class)
+                .setParameter("status", status)
+                .setParameter("assetType", assetType)
+                .setParameter("keyword", AssetService.prefixPattern(keyword));
+
+        Writer writer = open(out, encoding);
+        int count = 0;
+        try (Stream<AssetExportRow> rows = stream(query)) {
+            writeLine(writer, "旧管理No", "資産種別", "品名", "型名", "製造番号", "OS", "CPU", "メモリ", "ストレージ",
+                    "スペック", "購入日", "QRコードID", "ステータス", "利用者社員番号", "利用者");
+            for (Iterator<AssetExportRow> it = rows.iterator(); it.hasNext(); count++) {
+                AssetExportRow r = it.next();
+                writeLine(writer, r.oldManagementCode(), r.assetType().getDisplayName(), r.productName(),
+                        r.modelName(), r.serialNumber(), r.os(), r.cpu(), r.memory(), r.storage(), r.spec(),
+                        r.purchaseDate(), r.qrCodeId(), r.status().getDisplayName(),
+                        r.currentEmployeeCode(), r.currentEmployeeName());
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 社員を出力する (departmentId 指定時はその部署の社員のみ)。
+     *
+     * @return 出力した行数 (ヘッダーを除く)
+     */
+    @Transactional(readOnly = true)
+    public int writeEmployees(Long departmentId, Encoding encoding, OutputStream out) throws IOException {
+        TypedQuery<EmployeeExportRow> query = entityManager.createQuery("""
+                select new com.example.demo.dto.EmployeeExportRow(
+                    e.employeeCode, e.name, d.id, s.id, d.name, s.name)
+                from Employee e
+                left join e.department d
+                left join e.section s
+                where (:departmentId is null or d.id = :departmentId)
+                order by e.employeeCode
+                """, EmployeeExportRow.class)
+                .setParameter("departmentId", departmentId);
+
+        Writer writer = open(out, encoding);
+        int count = 0;
+        try (Stream<EmployeeExportRow> rows = stream(query)) {
+            writeLine(writer, "社員番号", "氏名", "部署ID", "課ID", "部署", "課");
+            for (Iterator<EmployeeExportRow> it = rows.iterator(); it.hasNext(); count++) {
+                EmployeeExportRow r = it.next();
+                writeLine(writer, r.employeeCode(), r.name(), r.departmentId(), r.sectionId(),
+                        r.departmentName(), r.sectionName());
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * 貸出履歴を新しい順に出力する (条件は履歴APIと同じ)。
+     *
+     * @return 出力した行数 (ヘッダーを除く)
+     */
+    @Transactional(readOnly = true)
+    public int writeAssignments(AssignmentHistoryFilter filter, Encoding encoding, OutputStream out) throws IOException {
+        TypedQuery<AssignmentHistoryRow> query = assignmentHistoryService.createQuery(filter);
+
+        Writer writer = open(out, encoding);
+        int count = 0;
+        try (Stream<AssignmentHistoryRow> rows = stream(query)) {
+            writeLine(writer, "貸出日", "返却日", "社員番号", "氏名", "部署", "QRコードID", "品名", "旧管理No");
+            for (Iterator<AssignmentHistoryRow> it = rows.iterator(); it.hasNext(); count++) {
+                AssignmentHistoryRow r = it.next();
+                writeLine(writer, r.checkoutDate(), r.returnDate(), r.employeeCode(), r.employeeName(),
+                        r.departmentName(), r.qrCodeId(), r.productName(), r.oldManagementCode());
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /** カーソルで1件ずつ読む (読み取り専用、永続化コンテキストに載せない) */
+    private <T> Stream<T> stream(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /** 出力用の Writer を作る。レスポンスのストリームは閉じるのがフレームワーク側のため、書き終えたら flush だけ行う */
+    private static Writer open(OutputStream out, Encoding encoding) throws IOException {
+        if (encoding == Encoding.UTF8) {
+            out.write(UTF8_BOM);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, encoding.charset), BUFFER_SIZE);
+    }
+
+    /** 1行を書く (RFC 4180: カンマ・ダブルクォート・改行を含む値はクォートし、行末は CRLF) */
+    static void writeLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            Object value = values[i];
+            if (value == null) continue;
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
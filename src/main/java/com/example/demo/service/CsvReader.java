@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * RFC 4180 形式の CSV を1レコードずつ読む (資産・社員CSV取込で共用)。
+ *
+ * <p>ダブルクォートで囲んだ値 (カンマ・改行を含むセル、"" によるクォートのエスケープ) と
+ * CRLF / LF / CR の行末に対応する。Excel で複数行のセルを含むファイルも1レコードとして読める。
+ * 文字は Reader から自前のバッファへまとめて読み、レコードの内容は使い回す char 配列に詰めるため、
+ * 1レコードあたりの割り当ては取り出した値の String だけで済む。
+ *
+ * <p>厳密さより取り込めることを優先し、値の途中に現れたクォートは文字として扱い、
+ * 閉じられていないクォートはファイル末尾で閉じたものとみなす。
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /** 現在のレコードの全フィールドの文字 (フィールドごとの終端位置は fieldEnds) */
+    private char[] chars = new char[256];
+    private int length;
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    /** 次に読む物理行の番号 (1始まり) と、現在のレコードが始まった行の番号 */
+    private int nextLine = 1;
+    private int recordLine;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 次のレコードを読む。
+     *
+     * @return ファイル末尾に達していれば false
+     */
+    public boolean next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            // 先頭の BOM は値に含めない
+            if (c == '\uFEFF') c = read();
+        }
+        if (c < 0) return false;
+
+        length = 0;
+        fieldCount = 0;
+        recordLine = nextLine;
+        boolean quoted = false;
+        boolean atFieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    endField();
+                    return true;
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) nextLine++;
+                    append((char) c);
+                }
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') read();
+                if (c >= 0) nextLine++;
+                endField();
+                return true;
+            } else if (c == ',') {
+                endField();
+                atFieldStart = true;
+                c = read();
+                continue;
+            } else if (c == '"' && atFieldStart) {
+                quoted = true;
+            } else {
+                append((char) c);
+            }
+            atFieldStart = false;
+            c = read();
+        }
+    }
+
+    /** 現在のレコードのフィールド数 */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** 現在のレコードが始まった物理行の番号 (1始まり、エラーメッセージ用) */
+    public int lineNumber() {
+        return recordLine;
+    }
+
+    /** 空行 (空白だけの行を含む) か */
+    public boolean isBlank() {
+        return fieldCount == 1 && field(0).isEmpty();
+    }
+
+    /** index 番目の値 (前後の空白を除く)。列が足りなければ空文字 */
+    public String field(int index) {
+        if (index >= fieldCount) return "";
+        int start = index == 0 ? 0 : fieldEnds[index - 1];
+        int end = fieldEnds[index];
+        while (start < end && chars[start] <= ' ') start++;
+        while (end > start && chars[end - 1] <= ' ') end--;
+        return start == end ? "" : new String(chars, start, end - start);
+    }
+
+    /** 先頭から columns 列分の値 (前後の空白を除く、足りない列は空文字) を配列で取り出す */
+    public String[] fields(int columns) {
+        String[] values = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = field(i);
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    private void endField() {
+        if (fieldCount == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldEnds[fieldCount++] = length;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.*;
+import com.example.demo.event.AssetsImportedEvent;
+import com.example.demo.event.EmployeeChangedEvent;
 import com.example.demo.repository.AssetRepository;
-import com.example.demo.repository.DepartmentRepository;
 import com.example.demo.repository.EmployeeRepository;
-import com.example.demo.repository.SectionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.*;
 import java.nio.charset.Charset;
@@ -16,16 +24,47 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 社員・資産の CSV 一括登録。
+ *
+ * <p>どちらも「1行の検証 (DB を書き換えない) → ファイル内の重複の判定 → 登録」の順に処理する。
+ * 通常の取込はファイルを読みながら1行ずつこの順に進める。検証のみ (validate*Csv) はファイル全体を読んでから
+ * 行の検証を importValidationExecutor で分割して並列に行い、登録できる行の一覧を返す。
+ * その一覧を commit*Rows に渡せば、ファイルを読み直さずに登録できる。
+ * 1行あたりの処理時間は csv.import.row (type = asset / employee、step = import / validate) に記録する。
+ */
 @Service
 @RequiredArgsConstructor
 public class CsvService {
 
+    private static final int EMPLOYEE_COLUMNS = 4;
+    private static final String[] EMPLOYEE_HEADER_KEYWORDS = {"社員番号", "employeecode"};
+    private static final int ASSET_COLUMNS = 11;
+    private static final String[] ASSET_HEADER_KEYWORDS = {"旧管理No", "資産種別", "assettype"};
+    /** 検証のみの取込で、1タスクとして並列に検証する行数 */
+    private static final int VALIDATION_CHUNK_SIZE = 1000;
+    /** 検証のみの取込でファイルを最後まで読めなかったときのジョブの失敗理由 (途中までの行は登録させない) */
+    private static final String INCOMPLETE_VALIDATION = "ファイルを最後まで読み込めなかったため、検証結果は登録できません";
+
     private final EmployeeRepository employeeRepository;
-    private final DepartmentRepository departmentRepository;
-    private final SectionRepository sectionRepository;
+    private final OrganizationDirectory organizationDirectory;
     private final AssetRepository assetRepository;
     private final AssetService assetService;
+    private final ImageCatalogService imageCatalogService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier("importValidationExecutor")
+    private final TaskExecutor importValidationExecutor;
+    private final MeterRegistry meterRegistry;
+
+    /** 資産CSV取込で1トランザクションにまとめる行数 */
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
 
     // ==================== 共通 ====================
 
@@ -33,25 +72,27 @@ public class CsvService {
      * UTF-8 BOM の有無で文字コードを判定する。
      * BOM があれば UTF-8、なければ Shift-JIS (Windows-31J) として扱う。
      * Excel で CSV を保存すると Shift-JIS になるケースに対応。
+     * (状態を持たないため static。ベンチマークからも同じ経路で読む)
      */
-    private BufferedReader createReader(MultipartFile file) throws IOException {
-        byte[] raw = file.getBytes();
+    public static Reader createReader(InputStream source) throws IOException {
+        // ファイル全体をメモリに載せず、先頭3バイトだけ覗いてからストリームで読む
+        BufferedInputStream in = new BufferedInputStream(source);
+        in.mark(3);
+        byte[] head = in.readNBytes(3);
         Charset charset;
-        int skip = 0;
 
-        if (raw.length >= 3
-                && (raw[0] & 0xFF) == 0xEF
-                && (raw[1] & 0xFF) == 0xBB
-                && (raw[2] & 0xFF) == 0xBF) {
+        if (head.length == 3
+                && (head[0] & 0xFF) == 0xEF
+                && (head[1] & 0xFF) == 0xBB
+                && (head[2] & 0xFF) == 0xBF) {
             charset = StandardCharsets.UTF_8;
-            skip = 3;
         } else {
+            in.reset();
             charset = Charset.forName("Windows-31J");
         }
 
-        return new BufferedReader(
-                new InputStreamReader(
-                        new ByteArrayInputStream(raw, skip, raw.length - skip), charset));
+        // バッファリングは CsvReader 側で行う
+        return new InputStreamReader(in, charset);
     }
 
     // ==================== 社員CSV ====================
@@ -66,109 +107,164 @@ public class CsvService {
         return getEmployeeCsvTemplate();
     }
 
+    /**
+     * 社員CSVを取り込み、登録件数を返す。
+     * 登録済みの社員番号は取込開始時に一括で読み込んで照合する (ファイル内の重複も検出する)。
+     * 行ごとの進捗とエラーは listener に通知する。
+     */
     @Transactional
-    public CsvImportResult importEmployeeCsv(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int lineNumber = 0;
-
-        try (BufferedReader reader = createReader(file)) {
-            String line;
-            boolean isHeader = true;
+    public int importEmployeeCsv(InputStream in, ImportListener listener) {
+        Set<String> existingCodes = loadEmployeeCodes();
+        // 部署・課の検証は取込開始時点のマスタで行う (行ごとに DB を引かない)
+        OrganizationSnapshot organization = organizationDirectory.snapshot();
+        Set<String> seenCodes = new HashSet<>();
+        int[] successCount = {0};
+        Timer rowTimer = rowTimer("employee", "import");
+
+        readRecords(in, EMPLOYEE_COLUMNS, EMPLOYEE_HEADER_KEYWORDS, listener, record -> rowTimer.record(() -> {
+            Checked<EmployeeImportRow> checked = validateEmployeeRow(record, existingCodes, organization);
+            String error = checked.error() != null ? checked.error() : claimEmployeeKeys(checked.row(), seenCodes);
+            if (error != null) {
+                listener.error(record.lineNumber() + "行目: " + error);
+                return;
+            }
+            saveEmployee(checked.row());
+            successCount[0]++;
+        }));
+        return successCount[0];
+    }
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                line = line.replace("\uFEFF", "");
+    /**
+     * 社員CSVを検証のみ行い、登録できる行を返す (DB は書き換えない)。
+     * エラーは行番号順に listener に通知する。ファイルを最後まで読めなければ IllegalStateException。
+     */
+    public List<EmployeeImportRow> validateEmployeeCsv(InputStream in, ImportListener listener) {
+        Set<String> existingCodes = loadEmployeeCodes();
+        OrganizationSnapshot organization = organizationDirectory.snapshot();
+        List<CsvRecord> records = new ArrayList<>();
+        if (!readRecords(in, EMPLOYEE_COLUMNS, EMPLOYEE_HEADER_KEYWORDS, listener, records::add)) {
+            throw new IllegalStateException(INCOMPLETE_VALIDATION);
+        }
 
-                if (line.trim().isEmpty()) continue;
+        Set<String> seenCodes = new HashSet<>();
+        return collectValid(validateInParallel(records, rowTimer("employee", "validate"),
+                        r -> validateEmployeeRow(r, existingCodes, organization)),
+                row -> claimEmployeeKeys(row, seenCodes), listener);
+    }
 
-                if (isHeader) {
-                    isHeader = false;
-                    if (line.contains("社員番号") || line.toLowerCase().contains("employeecode")) {
-                        continue;
-                    }
-                }
+    /**
+     * 検証済みの社員を登録し、登録件数を返す。
+     * 検証後に他で登録された社員番号や、削除された部署・課はここで改めて弾く。
+     */
+    @Transactional
+    public int commitEmployeeRows(List<EmployeeImportRow> rows, ImportListener listener) {
+        Set<String> existingCodes = loadEmployeeCodes();
+        OrganizationSnapshot organization = organizationDirectory.snapshot();
+        int successCount = 0;
+        for (EmployeeImportRow row : rows) {
+            listener.rowProcessed();
+            String error = existingCodes.contains(row.employeeCode())
+                    ? "社員番号 " + row.employeeCode() + " は既に登録済みです"
+                    : organizationError(row.departmentId(), row.sectionId(), organization);
+            if (error != null) {
+                listener.error(row.lineNumber() + "行目: " + error);
+                continue;
+            }
+            saveEmployee(row);
+            successCount++;
+        }
+        return successCount;
+    }
 
-                try {
-                    String[] cols = line.split(",", -1);
-                    if (cols.length < 2) {
-                        errors.add(lineNumber + "行目: 列数が不足しています");
-                        continue;
-                    }
+    private Set<String> loadEmployeeCodes() {
+        return new HashSet<>(employeeRepository.findAllEmployeeCodes());
+    }
 
-                    String employeeCode = cols[0].trim();
-                    String name = cols[1].trim();
-                    String deptIdStr = cols.length > 2 ? cols[2].trim() : "";
-                    String secIdStr = cols.length > 3 ? cols[3].trim() : "";
+    /** 1行分の社員データを検証する (DB を参照しないため並列に呼んでよい) */
+    private static Checked<EmployeeImportRow> validateEmployeeRow(CsvRecord record, Set<String> existingCodes,
+                                                                  OrganizationSnapshot organization) {
+        int lineNumber = record.lineNumber();
+        if (record.fieldCount() < 2) {
+            return Checked.error(lineNumber, "列数が不足しています");
+        }
 
-                    if (employeeCode.isEmpty() || name.isEmpty()) {
-                        errors.add(lineNumber + "行目: 社員番号と氏名は必須です");
-                        continue;
-                    }
+        String employeeCode = record.field(0);
+        String name = record.field(1);
+        String deptIdStr = record.field(2);
+        String secIdStr = record.field(3);
 
-                    if (employeeRepository.findByEmployeeCode(employeeCode).isPresent()) {
-                        errors.add(lineNumber + "行目: 社員番号 " + employeeCode + " は既に登録済みです");
-                        continue;
-                    }
+        if (employeeCode.isEmpty() || name.isEmpty()) {
+            return Checked.error(lineNumber, "社員番号と氏名は必須です");
+        }
+        if (existingCodes.contains(employeeCode)) {
+            return Checked.error(lineNumber, "社員番号 " + employeeCode + " は既に登録済みです");
+        }
 
-                    Department department = null;
-                    if (!deptIdStr.isEmpty()) {
-                        try {
-                            Long deptId = Long.parseLong(deptIdStr);
-                            Optional<Department> deptOpt = departmentRepository.findById(deptId);
-                            if (deptOpt.isEmpty()) {
-                                errors.add(lineNumber + "行目: 部署ID「" + deptIdStr + "」がマスタに存在しません");
-                                continue;
-                            }
-                            department = deptOpt.get();
-                        } catch (NumberFormatException e) {
-                            errors.add(lineNumber + "行目: 部署ID「" + deptIdStr + "」は数値で指定してください");
-                            continue;
-                        }
-                    }
+        Long departmentId = null;
+        if (!deptIdStr.isEmpty()) {
+            try {
+                departmentId = Long.parseLong(deptIdStr);
+            } catch (NumberFormatException e) {
+                return Checked.error(lineNumber, "部署ID「" + deptIdStr + "」は数値で指定してください");
+            }
+        }
+        Long sectionId = null;
+        if (!secIdStr.isEmpty()) {
+            if (departmentId == null) {
+                return Checked.error(lineNumber, "課IDを指定する場合は部署IDも必須です");
+            }
+            try {
+                sectionId = Long.parseLong(secIdStr);
+            } catch (NumberFormatException e) {
+                return Checked.error(lineNumber, "課ID「" + secIdStr + "」は数値で指定してください");
+            }
+        }
 
-                    Section section = null;
-                    if (!secIdStr.isEmpty()) {
-                        if (department == null) {
-                            errors.add(lineNumber + "行目: 課IDを指定する場合は部署IDも必須です");
-                            continue;
-                        }
-                        try {
-                            Long secId = Long.parseLong(secIdStr);
-                            Optional<Section> secOpt = sectionRepository.findById(secId);
-                            if (secOpt.isEmpty()) {
-                                errors.add(lineNumber + "行目: 課ID「" + secIdStr + "」がマスタに存在しません");
-                                continue;
-                            }
-                            section = secOpt.get();
-                            if (!section.getDepartment().getId().equals(department.getId())) {
-                                errors.add(lineNumber + "行目: 課ID「" + secIdStr + "」は部署「"
-                                        + department.getName() + "」に属していません");
-                                continue;
-                            }
-                        } catch (NumberFormatException e) {
-                            errors.add(lineNumber + "行目: 課ID「" + secIdStr + "」は数値で指定してください");
-                            continue;
-                        }
-                    }
+        String error = organizationError(departmentId, sectionId, organization);
+        if (error != null) {
+            return Checked.error(lineNumber, error);
+        }
+        return Checked.ok(lineNumber, new EmployeeImportRow(lineNumber, employeeCode, name, departmentId, sectionId));
+    }
 
-                    Employee emp = new Employee();
-                    emp.setEmployeeCode(employeeCode);
-                    emp.setName(name);
-                    emp.setDepartment(department);
-                    emp.setSection(section);
-                    employeeRepository.save(emp);
-                    successCount++;
+    /** 部署・課がマスタに存在し、課がその部署に属しているか (問題なければ null) */
+    private static String organizationError(Long departmentId, Long sectionId, OrganizationSnapshot organization) {
+        if (departmentId == null) return null;
+        Optional<OrganizationSnapshot.DepartmentEntry> department = organization.department(departmentId);
+        if (department.isEmpty()) {
+            return "部署ID「" + departmentId + "」がマスタに存在しません";
+        }
+        if (sectionId == null) return null;
+        Optional<OrganizationSnapshot.SectionEntry> section = organization.section(sectionId);
+        if (section.isEmpty()) {
+            return "課ID「" + sectionId + "」がマスタに存在しません";
+        }
+        if (!section.get().departmentId().equals(departmentId)) {
+            return "課ID「" + sectionId + "」は部署「" + department.get().name() + "」に属していません";
+        }
+        return null;
+    }
 
-                } catch (Exception e) {
-                    errors.add(lineNumber + "行目: 処理エラー - " + e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            errors.add("ファイル読み込みエラー: " + e.getMessage());
+    /** ファイル内で先に現れた行と社員番号が重複していないか (重複していなければ登録して null) */
+    private static String claimEmployeeKeys(EmployeeImportRow row, Set<String> seenCodes) {
+        if (!seenCodes.add(row.employeeCode())) {
+            return "社員番号 " + row.employeeCode() + " がファイル内で重複しています";
         }
+        return null;
+    }
 
-        return new CsvImportResult(successCount, errors);
+    private void saveEmployee(EmployeeImportRow row) {
+        Employee emp = new Employee();
+        emp.setEmployeeCode(row.employeeCode());
+        emp.setName(row.name());
+        // 存在はスナップショットで確認済みのため、参照だけ設定して SELECT を発行しない
+        emp.setDepartment(row.departmentId() == null ? null
+                : entityManager.getReference(Department.class, row.departmentId()));
+        emp.setSection(row.sectionId() == null ? null
+                : entityManager.getReference(Section.class, row.sectionId()));
+        employeeRepository.save(emp);
+        eventPublisher.publishEvent(
+                new EmployeeChangedEvent(EmployeeChangedEvent.ChangeType.CREATED, emp.getId()));
     }
 
     // ==================== 資産CSV ====================
@@ -179,119 +275,237 @@ public class CsvService {
                 + "MB-0015,MOBILE,iPhone 15,MTJN3J/A,F2LXX1234,,,,128GB,,2025-06-15\n";
     }
 
-    @Transactional
-    public CsvImportResult importAssetCsv(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int lineNumber = 0;
+    /**
+     * 資産CSVを取り込む。
+     * ファイルは CsvReader で1レコードずつストリームで読み、既存キー (製造番号 / 旧管理No) と型名の代表画像は
+     * 取込開始時に一括でメモリへ読み込んで照合する。検証済みの行は chunkSize 件ごとに
+     * 個別トランザクションで JDBC バッチ登録し、永続化コンテキストをクリアする。
+     * 行ごとの進捗とエラーは listener に通知し、登録件数を返す。
+     */
+    public int importAssetCsv(InputStream in, ImportListener listener) {
+        AssetKeySets keys = loadAssetKeySets();
+        Set<String> seenOldCodes = new HashSet<>();
+        Set<String> seenSerials = new HashSet<>();
+        AssetChunkWriter writer = new AssetChunkWriter(keys.modelImages(), listener);
+        Timer rowTimer = rowTimer("asset", "import");
+
+        readRecords(in, ASSET_COLUMNS, ASSET_HEADER_KEYWORDS, listener, record -> rowTimer.record(() -> {
+            Checked<AssetImportRow> checked = validateAssetRow(record, keys);
+            String error = checked.error() != null
+                    ? checked.error() : claimAssetKeys(checked.row(), seenOldCodes, seenSerials);
+            if (error != null) {
+                listener.error(record.lineNumber() + "行目: " + error);
+                return;
+            }
+            writer.add(checked.row());
+        }));
+        return writer.finish();
+    }
 
-        try (BufferedReader reader = createReader(file)) {
-            String line;
-            boolean isHeader = true;
+    /**
+     * 資産CSVを検証のみ行い、登録できる行を返す (DB は書き換えず、QRコードIDも採番しない)。
+     * エラーは行番号順に listener に通知する。ファイルを最後まで読めなければ IllegalStateException。
+     */
+    public List<AssetImportRow> validateAssetCsv(InputStream in, ImportListener listener) {
+        AssetKeySets keys = loadAssetKeySets();
+        List<CsvRecord> records = new ArrayList<>();
+        if (!readRecords(in, ASSET_COLUMNS, ASSET_HEADER_KEYWORDS, listener, records::add)) {
+            throw new IllegalStateException(INCOMPLETE_VALIDATION);
+        }
 
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                line = line.replace("\uFEFF", "");
+        Set<String> seenOldCodes = new HashSet<>();
+        Set<String> seenSerials = new HashSet<>();
+        return collectValid(validateInParallel(records, rowTimer("asset", "validate"), r -> validateAssetRow(r, keys)),
+                row -> claimAssetKeys(row, seenOldCodes, seenSerials), listener);
+    }
 
-                if (line.trim().isEmpty()) continue;
+    /**
+     * 検証済みの資産を chunkSize 件ごとに登録し、登録件数を返す。
+     * 検証後に他で登録された製造番号・旧管理No はここで改めて弾く。
+     */
+    public int commitAssetRows(List<AssetImportRow> rows, ImportListener listener) {
+        AssetKeySets keys = loadAssetKeySets();
+        AssetChunkWriter writer = new AssetChunkWriter(keys.modelImages(), listener);
+        for (AssetImportRow row : rows) {
+            listener.rowProcessed();
+            String error = existingAssetKeyError(row.oldManagementCode(), row.serialNumber(), keys);
+            if (error != null) {
+                listener.error(row.lineNumber() + "行目: " + error);
+                continue;
+            }
+            writer.add(row);
+        }
+        return writer.finish();
+    }
 
-                if (isHeader) {
-                    isHeader = false;
-                    if (line.contains("旧管理No") || line.contains("資産種別") || line.toLowerCase().contains("assettype")) {
-                        continue;
-                    }
-                }
+    /** 既存資産のキーと型名の代表画像を一括取得する (行ごとの SELECT を避けるため) */
+    private AssetKeySets loadAssetKeySets() {
+        return new AssetKeySets(
+                new HashSet<>(assetRepository.findAllSerialNumbers()),
+                new HashSet<>(assetRepository.findAllOldManagementCodes()),
+                imageCatalogService.modelImageMap());
+    }
 
-                try {
-                    String[] cols = line.split(",", -1);
-                    if (cols.length < 3) {
-                        errors.add(lineNumber + "行目: 列数が不足しています（旧管理No, 資産種別, 品名 は必須）");
-                        continue;
-                    }
+    /** 1行分の資産データを検証する (DB を参照しないため並列に呼んでよい) */
+    private static Checked<AssetImportRow> validateAssetRow(CsvRecord record, AssetKeySets keys) {
+        int lineNumber = record.lineNumber();
+        if (record.fieldCount() < 3) {
+            return Checked.error(lineNumber, "列数が不足しています（旧管理No, 資産種別, 品名 は必須）");
+        }
 
-                    String oldCode = cols[0].trim();
-                    String typeStr = cols[1].trim();
-                    String productName = cols[2].trim();
-                    String modelName = cols.length > 3 ? cols[3].trim() : "";
-                    String serialNumber = cols.length > 4 ? cols[4].trim() : "";
-                    String os = cols.length > 5 ? cols[5].trim() : "";
-                    String cpu = cols.length > 6 ? cols[6].trim() : "";
-                    String memory = cols.length > 7 ? cols[7].trim() : "";
-                    String storage = cols.length > 8 ? cols[8].trim() : "";
-                    String spec = cols.length > 9 ? cols[9].trim() : "";
-                    String purchaseDateStr = cols.length > 10 ? cols[10].trim() : "";
-
-                    if (typeStr.isEmpty() || productName.isEmpty()) {
-                        errors.add(lineNumber + "行目: 資産種別と品名は必須です");
-                        continue;
-                    }
+        String oldCode = record.field(0);
+        String typeStr = record.field(1);
+        String productName = record.field(2);
+        String serialNumber = record.field(4);
+        String purchaseDateStr = record.field(10);
 
-                    if (!oldCode.isEmpty()
-                            && assetRepository.findByOldManagementCode(oldCode).isPresent()) {
-                        errors.add(lineNumber + "行目: 旧管理No「" + oldCode + "」は既に登録済みです");
-                        continue;
-                    }
+        if (typeStr.isEmpty() || productName.isEmpty()) {
+            return Checked.error(lineNumber, "資産種別と品名は必須です");
+        }
 
-                    AssetType assetType;
-                    try {
-                        assetType = parseAssetType(typeStr);
-                    } catch (IllegalArgumentException e) {
-                        errors.add(lineNumber + "行目: 資産種別「" + typeStr + "」が不正です（PC / MOBILE / 携帯 のいずれかを指定）");
-                        continue;
-                    }
+        AssetType assetType;
+        try {
+            assetType = parseAssetType(typeStr);
+        } catch (IllegalArgumentException e) {
+            return Checked.error(lineNumber, "資産種別「" + typeStr + "」が不正です（PC / MOBILE / 携帯 のいずれかを指定）");
+        }
 
-                    if (!serialNumber.isEmpty()
-                            && assetRepository.findAll().stream()
-                            .anyMatch(a -> serialNumber.equals(a.getSerialNumber()))) {
-                        errors.add(lineNumber + "行目: 製造番号「" + serialNumber + "」は既に登録済みです");
-                        continue;
-                    }
+        String error = existingAssetKeyError(oldCode, serialNumber, keys);
+        if (error != null) {
+            return Checked.error(lineNumber, error);
+        }
 
-                    LocalDate purchaseDate = null;
-                    if (!purchaseDateStr.isEmpty()) {
-                        try {
-                            purchaseDate = LocalDate.parse(purchaseDateStr);
-                        } catch (DateTimeParseException e) {
-                            errors.add(lineNumber + "行目: 購入日「" + purchaseDateStr + "」の形式が不正です（yyyy-MM-dd で指定）");
-                            continue;
-                        }
-                    }
+        LocalDate purchaseDate = null;
+        if (!purchaseDateStr.isEmpty()) {
+            try {
+                purchaseDate = LocalDate.parse(purchaseDateStr);
+            } catch (DateTimeParseException e) {
+                return Checked.error(lineNumber, "購入日「" + purchaseDateStr + "」の形式が不正です（yyyy-MM-dd で指定）");
+            }
+        }
 
-                    Asset asset = new Asset();
-                    if (!oldCode.isEmpty()) asset.setOldManagementCode(oldCode);
-                    asset.setAssetType(assetType);
-                    asset.setQrCodeId(assetService.generateQrCodeId());
-                    asset.setProductName(productName);
-                    asset.setStatus(AssetStatus.STOCK);
-                    if (!modelName.isEmpty()) asset.setModelName(modelName);
-                    if (!serialNumber.isEmpty()) asset.setSerialNumber(serialNumber);
-                    if (!os.isEmpty()) asset.setOs(os);
-                    if (!cpu.isEmpty()) asset.setCpu(cpu);
-                    if (!memory.isEmpty()) asset.setMemory(memory);
-                    if (!storage.isEmpty()) asset.setStorage(storage);
-                    if (!spec.isEmpty()) asset.setSpec(spec);
-                    asset.setPurchaseDate(purchaseDate);
-
-                    if (!modelName.isEmpty()) {
-                        assetService.findImagePathByModelName(modelName)
-                                .ifPresent(asset::setImagePath);
-                    }
+        return Checked.ok(lineNumber, new AssetImportRow(lineNumber, emptyToNull(oldCode), assetType, productName,
+                emptyToNull(record.field(3)), emptyToNull(serialNumber), emptyToNull(record.field(5)),
+                emptyToNull(record.field(6)), emptyToNull(record.field(7)), emptyToNull(record.field(8)),
+                emptyToNull(record.field(9)), purchaseDate));
+    }
 
-                    assetRepository.save(asset);
-                    successCount++;
+    /** 旧管理No・製造番号が登録済みでないか (問題なければ null、空欄は照合しない) */
+    private static String existingAssetKeyError(String oldCode, String serialNumber, AssetKeySets keys) {
+        if (oldCode != null && !oldCode.isEmpty() && keys.oldManagementCodes().contains(oldCode)) {
+            return "旧管理No「" + oldCode + "」は既に登録済みです";
+        }
+        if (serialNumber != null && !serialNumber.isEmpty() && keys.serialNumbers().contains(serialNumber)) {
+            return "製造番号「" + serialNumber + "」は既に登録済みです";
+        }
+        return null;
+    }
 
-                } catch (Exception e) {
-                    errors.add(lineNumber + "行目: 処理エラー - " + e.getMessage());
-                }
+    /** ファイル内で先に現れた行と旧管理No・製造番号が重複していないか (重複していなければ登録して null) */
+    private static String claimAssetKeys(AssetImportRow row, Set<String> seenOldCodes, Set<String> seenSerials) {
+        String oldCode = row.oldManagementCode();
+        String serialNumber = row.serialNumber();
+        if (oldCode != null && seenOldCodes.contains(oldCode)) {
+            return "旧管理No「" + oldCode + "」がファイル内で重複しています";
+        }
+        if (serialNumber != null && seenSerials.contains(serialNumber)) {
+            return "製造番号「" + serialNumber + "」がファイル内で重複しています";
+        }
+        if (oldCode != null) seenOldCodes.add(oldCode);
+        if (serialNumber != null) seenSerials.add(serialNumber);
+        return null;
+    }
+
+    /** 検証済みの行から Asset を組み立てる (QRコードIDはここで採番する) */
+    private Asset toAsset(AssetImportRow row, Map<String, String> modelImages) {
+        Asset asset = new Asset();
+        asset.setOldManagementCode(row.oldManagementCode());
+        asset.setAssetType(row.assetType());
+        asset.setQrCodeId(assetService.generateQrCodeId());
+        asset.setProductName(row.productName());
+        asset.setStatus(AssetStatus.STOCK);
+        asset.setModelName(row.modelName());
+        asset.setSerialNumber(row.serialNumber());
+        asset.setOs(row.os());
+        asset.setCpu(row.cpu());
+        asset.setMemory(row.memory());
+        asset.setStorage(row.storage());
+        asset.setSpec(row.spec());
+        asset.setPurchaseDate(row.purchaseDate());
+        if (row.modelName() != null) {
+            asset.setImagePath(modelImages.get(row.modelName()));
+        }
+        return asset;
+    }
+
+    /**
+     * 溜まった資産をまとめて登録する (1チャンク = 1トランザクション)。
+     * 画像の参照数は同じトランザクションで画像ごとに1回の UPDATE で増やす。
+     * flush 後に clear して永続化コンテキストが膨らまないようにする。
+     * 失敗した場合はチャンク全体をエラーとして報告する。
+     */
+    private int persistAssetChunk(TransactionTemplate tx, List<AssetImportRow> rows,
+                                  Map<String, String> modelImages, ImportListener listener) {
+        if (rows.isEmpty()) return 0;
+        int size = rows.size();
+        int firstLine = rows.get(0).lineNumber();
+        int lastLine = rows.get(size - 1).lineNumber();
+        try {
+            List<Asset> chunk = new ArrayList<>(size);
+            Map<AssetType, Long> countsByType = new EnumMap<>(AssetType.class);
+            Map<String, Long> countsByImage = new HashMap<>();
+            for (AssetImportRow row : rows) {
+                Asset a = toAsset(row, modelImages);
+                chunk.add(a);
+                countsByType.merge(a.getAssetType(), 1L, Long::sum);
+                if (a.getImagePath() != null) countsByImage.merge(a.getImagePath(), 1L, Long::sum);
+            }
+            tx.executeWithoutResult(status -> {
+                assetRepository.saveAll(chunk);
+                countsByImage.forEach(imageCatalogService::acquire);
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new AssetsImportedEvent(countsByType));
+            });
+            listener.assetsCreated(chunk.stream().map(Asset::getId).toList());
+            return size;
+        } catch (RuntimeException e) {
+            listener.error(firstLine + "〜" + lastLine + "行目: 登録エラー (" + size + "件) - " + e.getMessage());
+            return 0;
+        } finally {
+            rows.clear();
+        }
+    }
+
+    /** 検証済みの資産を chunkSize 件溜まるごとに登録する */
+    private final class AssetChunkWriter {
+
+        private final TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        private final List<AssetImportRow> chunk = new ArrayList<>(chunkSize);
+        private final Map<String, String> modelImages;
+        private final ImportListener listener;
+        private int successCount;
+
+        AssetChunkWriter(Map<String, String> modelImages, ImportListener listener) {
+            this.modelImages = modelImages;
+            this.listener = listener;
+        }
+
+        void add(AssetImportRow row) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                successCount += persistAssetChunk(tx, chunk, modelImages, listener);
             }
-        } catch (Exception e) {
-            errors.add("ファイル読み込みエラー: " + e.getMessage());
         }
 
-        return new CsvImportResult(successCount, errors);
+        /** 残りを登録して登録件数の合計を返す */
+        int finish() {
+            successCount += persistAssetChunk(tx, chunk, modelImages, listener);
+            return successCount;
+        }
     }
 
-    private AssetType parseAssetType(String value) {
+    private static AssetType parseAssetType(String value) {
         return switch (value.toUpperCase()) {
             case "PC" -> AssetType.PC;
             case "MOBILE", "携帯" -> AssetType.MOBILE;
@@ -299,11 +513,159 @@ public class CsvService {
         };
     }
 
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    // ==================== 共通処理 ====================
+
+    /**
+     * データ行を1行ずつ handler に渡す (空行と1行目の見出し行は除く)。
+     * handler で起きた例外はその行のエラー、ファイルの読み込みに失敗した場合はファイル単位のエラーとして通知する。
+     *
+     * @return ファイルを最後まで読めたか (読み込みに失敗した場合 false)
+     */
+    private boolean readRecords(InputStream in, int columns, String[] headerKeywords,
+                                ImportListener listener, Consumer<CsvRecord> handler) {
+        int lineNumber = 0;
+        try (CsvReader csv = new CsvReader(createReader(in))) {
+            boolean isHeader = true;
+
+            while (csv.next()) {
+                lineNumber = csv.lineNumber();
+                if (csv.isBlank()) continue;
+
+                if (isHeader) {
+                    isHeader = false;
+                    if (isHeaderRow(csv, headerKeywords)) {
+                        continue;
+                    }
+                }
+
+                listener.rowProcessed();
+                try {
+                    handler.accept(new CsvRecord(lineNumber, csv.fieldCount(), csv.fields(columns)));
+                } catch (Exception e) {
+                    listener.error(lineNumber + "行目: 処理エラー - " + e.getMessage());
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            listener.error("ファイル読み込みエラー: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** 1行あたりの処理時間 (チャンクごとの登録を含む行はその分長くなる) */
+    private Timer rowTimer(String type, String step) {
+        return Timer.builder("csv.import.row")
+                .description("CSV取込の1行あたりの処理時間")
+                .tag("type", type)
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /** 1行目が見出し行か (いずれかの列にキーワードを含む。英字は大文字小文字を区別しない) */
+    private static boolean isHeaderRow(CsvReader csv, String... keywords) {
+        for (int i = 0; i < csv.fieldCount(); i++) {
+            String value = csv.field(i).toLowerCase(Locale.ROOT);
+            for (String keyword : keywords) {
+                if (value.contains(keyword.toLowerCase(Locale.ROOT))) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 行の検証を VALIDATION_CHUNK_SIZE 行ずつのタスクに分けて並列に行う。
+     * 結果は元の行の順に並べて返す。
+     */
+    private <T> List<Checked<T>> validateInParallel(List<CsvRecord> records, Timer rowTimer,
+                                                    Function<CsvRecord, Checked<T>> validator) {
+        List<CompletableFuture<List<Checked<T>>>> tasks = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += VALIDATION_CHUNK_SIZE) {
+            List<CsvRecord> slice = records.subList(from, Math.min(from + VALIDATION_CHUNK_SIZE, records.size()));
+            tasks.add(CompletableFuture.supplyAsync(() -> slice.stream()
+                    .map(record -> {
+                        try {
+                            return rowTimer.record(() -> validator.apply(record));
+                        } catch (RuntimeException e) {
+                            return Checked.<T>error(record.lineNumber(), "処理エラー - " + e.getMessage());
+                        }
+                    })
+                    .toList(), importValidationExecutor));
+        }
+        List<Checked<T>> results = new ArrayList<>(records.size());
+        tasks.forEach(task -> results.addAll(task.join()));
+        return results;
+    }
+
+    /**
+     * 検証結果を行の順にたどり、エラーを通知して登録できる行だけを返す。
+     * ファイル内の重複は先に現れた行を正とするため、この判定 (claim) は順に1行ずつ行う。
+     */
+    private static <T> List<T> collectValid(List<Checked<T>> results, Function<T, String> claim,
+                                            ImportListener listener) {
+        List<T> valid = new ArrayList<>();
+        for (Checked<T> checked : results) {
+            String error = checked.error() != null ? checked.error() : claim.apply(checked.row());
+            if (error != null) {
+                listener.error(checked.lineNumber() + "行目: " + error);
+            } else {
+                valid.add(checked.row());
+            }
+        }
+        return valid;
+    }
+
     // ==================== 共通レコード ====================
 
-    public record CsvImportResult(int successCount, List<String> errors) {
-        public boolean hasErrors() {
-            return !errors.isEmpty();
+    /** 取込中の進捗・エラーの通知先 (呼び出し元のスレッドで同期的に呼ばれる) */
+    public interface ImportListener {
+        /** データ行を1行処理した (成功・失敗を問わない) */
+        void rowProcessed();
+
+        /** 行単位またはファイル単位のエラー */
+        void error(String message);
+
+        /** 資産を1チャンク分登録した (コミット済み) */
+        default void assetsCreated(List<Long> assetIds) {
         }
     }
+
+    /** 検証済みの社員1行分 (部署・課は ID のみ) */
+    public record EmployeeImportRow(int lineNumber, String employeeCode, String name,
+                                    Long departmentId, Long sectionId) {}
+
+    /** 検証済みの資産1行分 (空欄の列は null、QRコードIDと画像は登録時に決める) */
+    public record AssetImportRow(int lineNumber, String oldManagementCode, AssetType assetType,
+                                 String productName, String modelName, String serialNumber,
+                                 String os, String cpu, String memory, String storage, String spec,
+                                 LocalDate purchaseDate) {}
+
+    /** CSV のデータ行1行分 (fields は列数分に揃えてある) */
+    private record CsvRecord(int lineNumber, int fieldCount, String[] fields) {
+
+        String field(int index) {
+            return fields[index];
+        }
+    }
+
+    /** 1行の検証結果 (row か error のどちらか一方) */
+    private record Checked<T>(int lineNumber, T row, String error) {
+
+        static <T> Checked<T> ok(int lineNumber, T row) {
+            return new Checked<>(lineNumber, row, null);
+        }
+
+        static <T> Checked<T> error(int lineNumber, String message) {
+            return new Checked<>(lineNumber, null, message);
+        }
+    }
+
+    /** 資産CSV取込時に照合する既存キーの集合と型名の代表画像 (取込中は読み取りのみ) */
+    private record AssetKeySets(Set<String> serialNumbers,
+                                Set<String> oldManagementCodes,
+                                Map<String, String> modelImages) {}
 }
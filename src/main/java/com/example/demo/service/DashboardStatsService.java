@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardStats;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.entity.AssetType;
+import com.example.demo.event.AssetChangedEvent;
+import com.example.demo.event.AssetsImportedEvent;
+import com.example.demo.event.EmployeeChangedEvent;
+import com.example.demo.event.LoanEvent;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AssignmentRepository;
+import com.example.demo.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * ダッシュボードの集計値をメモリ上に保持するサービス。
+ * 起動後の初回参照と定期実行で COUNT / GROUP BY による再集計 (reconcile) を行い、
+ * その間は貸出・返却や資産・社員の登録削除イベント (コミット後) で差分を反映する。
+ * 参照は不変スナップショットを返すだけなので DB には触れない。
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatsService.class);
+    static final String NO_DEPARTMENT = "未所属";
+
+    private final AssetRepository assetRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AssignmentRepository assignmentRepository;
+
+    /** この日数を超えて返却されていない貸出を長期貸出として数える */
+    @Value("${app.dashboard.overdue-days:365}")
+    private int overdueDays;
+
+    private volatile DashboardStats stats;
+
+    /** 差分更新の回数。再集計中に差分が入った場合の検出に使う */
+    private long modCount;
+
+    public DashboardStats getStats() {
+        DashboardStats current = stats;
+        if (current == null) {
+            reconcile();
+            current = stats;
+        }
+        return current;
+    }
+
+    /** DB から全集計をやり直してスナップショットを差し替える */
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval:300000}",
+            initialDelayString = "${app.dashboard.reconcile-interval:300000}")
+    public void reconcile() {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long before;
+            synchronized (this) {
+                before = modCount;
+            }
+            DashboardStats fresh = loadFromDatabase();
+            synchronized (this) {
+                if (modCount == before) {
+                    stats = fresh;
+                    return;
+                }
+            }
+        }
+        // 更新が続いている場合でも最新の集計を採用する (ずれは次回の再集計で解消)
+        DashboardStats fresh = loadFromDatabase();
+        synchronized (this) {
+            stats = fresh;
+        }
+        log.debug("ダッシュボード集計の再集計中に更新が続いたため、最後の集計結果を採用しました");
+    }
+
+    private DashboardStats loadFromDatabase() {
+        Map<AssetStatus, Long> byStatus = new EnumMap<>(AssetStatus.class);
+        for (AssetStatus s : AssetStatus.values()) byStatus.put(s, 0L);
+        for (Object[] row : assetRepository.countGroupByStatus()) {
+            byStatus.put((AssetStatus) row[0], (Long) row[1]);
+        }
+
+        Map<AssetType, Long> byType = new EnumMap<>(AssetType.class);
+        for (AssetType t : AssetType.values()) byType.put(t, 0L);
+        for (Object[] row : assetRepository.countGroupByAssetType()) {
+            byType.put((AssetType) row[0], (Long) row[1]);
+        }
+
+        Map<String, Long> byDepartment = new TreeMap<>();
+        for (Object[] row : assignmentRepository.countActiveGroupByDepartment()) {
+            String name = row[0] != null ? (String) row[0] : NO_DEPARTMENT;
+            byDepartment.merge(name, (Long) row[1], Long::sum);
+        }
+
+        return new DashboardStats(
+                assetRepository.count(),
+                employeeRepository.count(),
+                assignmentRepository.countByReturnDateIsNull(),
+                assignmentRepository.countByReturnDateIsNullAndCheckoutDateBefore(overdueThreshold()),
+                Collections.unmodifiableMap(byStatus),
+                Collections.unmodifiableMap(byType),
+                Collections.unmodifiableMap(byDepartment),
+                Instant.now());
+    }
+
+    private LocalDate overdueThreshold() {
+        return LocalDate.now().minusDays(overdueDays);
+    }
+
+    // ==================== 差分更新 ====================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        boolean checkout = event.action() == LoanEvent.Action.CHECKOUT;
+        long delta = checkout ? 1 : -1;
+        boolean overdue = !checkout && event.checkoutDate() != null
+                && event.checkoutDate().isBefore(overdueThreshold());
+        String dept = event.departmentName() != null ? event.departmentName() : NO_DEPARTMENT;
+
+        apply(s -> {
+            Map<AssetStatus, Long> byStatus = new EnumMap<>(s.byStatus());
+            byStatus.merge(AssetStatus.STOCK, -delta, Long::sum);
+            byStatus.merge(AssetStatus.IN_USE, delta, Long::sum);
+
+            Map<String, Long> byDepartment = new TreeMap<>(s.activeByDepartment());
+            byDepartment.merge(dept, delta, Long::sum);
+            byDepartment.values().removeIf(v -> v <= 0);
+
+            return new DashboardStats(s.totalAssets(), s.totalEmployees(),
+                    s.activeAssignments() + delta,
+                    s.overdueAssignments() - (overdue ? 1 : 0),
+                    Collections.unmodifiableMap(byStatus), s.byType(),
+                    Collections.unmodifiableMap(byDepartment), s.reconciledAt());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        apply(s -> {
+            Map<AssetStatus, Long> byStatus = new EnumMap<>(s.byStatus());
+            Map<AssetType, Long> byType = new EnumMap<>(s.byType());
+            if (event.oldStatus() != null) byStatus.merge(event.oldStatus(), -1L, Long::sum);
+            if (event.newStatus() != null) byStatus.merge(event.newStatus(), 1L, Long::sum);
+            if (event.oldType() != null) byType.merge(event.oldType(), -1L, Long::sum);
+            if (event.newType() != null) byType.merge(event.newType(), 1L, Long::sum);
+
+            long total = s.totalAssets() + switch (event.changeType()) {
+                case CREATED -> 1;
+                case DELETED -> -1;
+                case UPDATED -> 0;
+            };
+            return new DashboardStats(total, s.totalEmployees(),
+                    s.activeAssignments(), s.overdueAssignments(),
+                    Collections.unmodifiableMap(byStatus), Collections.unmodifiableMap(byType),
+                    s.activeByDepartment(), s.reconciledAt());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        apply(s -> {
+            long imported = event.countsByType().values().stream().mapToLong(Long::longValue).sum();
+            Map<AssetStatus, Long> byStatus = new EnumMap<>(s.byStatus());
+            byStatus.merge(AssetStatus.STOCK, imported, Long::sum);
+            Map<AssetType, Long> byType = new EnumMap<>(s.byType());
+            event.countsByType().forEach((type, count) -> byType.merge(type, count, Long::sum));
+
+            return new DashboardStats(s.totalAssets() + imported, s.totalEmployees(),
+                    s.activeAssignments(), s.overdueAssignments(),
+                    Collections.unmodifiableMap(byStatus), Collections.unmodifiableMap(byType),
+                    s.activeByDepartment(), s.reconciledAt());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        switch (event.changeType()) {
+            case CREATED, DELETED -> {
+                long delta = event.changeType() == EmployeeChangedEvent.ChangeType.CREATED ? 1 : -1;
+                apply(s -> new DashboardStats(s.totalAssets(), s.totalEmployees() + delta,
+                        s.activeAssignments(), s.overdueAssignments(),
+                        s.byStatus(), s.byType(), s.activeByDepartment(), s.reconciledAt()));
+            }
+            // 部署異動で部署別の貸出件数が変わりうるため、差分ではなく再集計する
+            case UPDATED -> reconcile();
+        }
+    }
+
+    /** 現在のスナップショットに差分を適用する (未集計なら何もしない。初回参照時に全集計される) */
+    private synchronized void apply(UnaryOperator<DashboardStats> change) {
+        modCount++;
+        if (stats != null) {
+            stats = change.apply(stats);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.Department;
+import com.example.demo.event.OrganizationChangedEvent;
 import com.example.demo.repository.DepartmentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.util.Optional;
 public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Department> findAll() {
         return departmentRepository.findAll();
@@ -29,11 +32,14 @@ public class DepartmentService {
 
     @Transactional
     public Department save(Department department) {
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        eventPublisher.publishEvent(new OrganizationChangedEvent());
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         departmentRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrganizationChangedEvent());
     }
 }
@@ -1,8 +1,10 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.Employee;
+import com.example.demo.event.EmployeeChangedEvent;
 import com.example.demo.repository.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,13 +15,15 @@ import java.util.Optional;
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Employee> findAll() {
         return employeeRepository.findAll();
     }
 
+    /** IDで検索 (部署・課も同時に取得) */
     public Optional<Employee> findById(Long id) {
-        return employeeRepository.findById(id);
+        return employeeRepository.findWithDepartmentAndSectionById(id);
     }
 
     public Optional<Employee> findByEmployeeCode(String code) {
@@ -27,10 +31,16 @@ public class EmployeeService {
     }
 
     public Employee save(Employee employee) {
-        return employeeRepository.save(employee);
+        boolean isNew = employee.getId() == null;
+        Employee saved = employeeRepository.save(employee);
+        eventPublisher.publishEvent(new EmployeeChangedEvent(
+                isNew ? EmployeeChangedEvent.ChangeType.CREATED : EmployeeChangedEvent.ChangeType.UPDATED,
+                saved.getId()));
+        return saved;
     }
 
     public void deleteById(Long id) {
         employeeRepository.deleteById(id);
+        eventPublisher.publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.ChangeType.DELETED, id));
     }
 }
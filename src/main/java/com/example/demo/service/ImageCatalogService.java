@@ -0,0 +1,228 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ModelImage;
+import com.example.demo.entity.StoredImage;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.ModelImageRepository;
+import com.example.demo.repository.StoredImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 画像カタログ。画像は内容の SHA-256 で1つだけ保存し (stored_images)、
+ * 型名ごとの代表画像 (model_images) と参照数で管理する。
+ *
+ * <p>参照数は資産の保存・削除と同じトランザクションで UPDATE 1回で増減する。
+ * 参照数が0のまま猶予期間 (app.image.orphan-grace) を過ぎた画像は定期的に削除する。
+ * アップロード直後でまだ資産に保存されていない画像を消さないための猶予。
+ */
+@Service
+public class ImageCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageCatalogService.class);
+
+    private final StoredImageRepository storedImageRepository;
+    private final ModelImageRepository modelImageRepository;
+    private final AssetRepository assetRepository;
+    private final ImageStorageService imageStorageService;
+    private final TransactionTemplate requiresNew;
+    private final Duration orphanGrace;
+
+    public ImageCatalogService(StoredImageRepository storedImageRepository,
+                               ModelImageRepository modelImageRepository,
+                               AssetRepository assetRepository,
+                               ImageStorageService imageStorageService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.image.orphan-grace:1h}") Duration orphanGrace) {
+        this.storedImageRepository = storedImageRepository;
+        this.modelImageRepository = modelImageRepository;
+        this.assetRepository = assetRepository;
+        this.imageStorageService = imageStorageService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.orphanGrace = orphanGrace;
+    }
+
+    /**
+     * アップロード画像を保存してカタログに登録し、使うべきファイル名を返す。
+     * 同じ内容の画像が別の拡張子で登録済みならそちらを返す。参照数は資産の保存時に増える。
+     */
+    public String store(MultipartFile file) throws IOException {
+        String stored = imageStorageService.store(file);
+        String sha256 = ImageStorageService.hashOf(stored).orElseThrow();
+        String fileName = register(sha256, stored);
+        if (!fileName.equals(stored)) {
+            imageStorageService.deleteOriginal(stored);
+        }
+        imageStorageService.scheduleDerivatives(fileName);
+        return fileName;
+    }
+
+    /** 型名の代表画像のファイル名 */
+    public Optional<String> findByModelName(String modelName) {
+        if (modelName == null || modelName.isBlank()) return Optional.empty();
+        return modelImageRepository.findFileNameByModelName(modelName);
+    }
+
+    /** 全型名の代表画像 (型名 → ファイル名)。CSV取込の開始時に1回だけ読む */
+    public Map<String, String> modelImageMap() {
+        Map<String, String> map = new HashMap<>();
+        for (Object[] row : modelImageRepository.findAllFileNames()) {
+            map.put((String) row[0], (String) row[1]);
+        }
+        return map;
+    }
+
+    /** 画像の参照数を増やす (呼び出し元のトランザクションに参加する) */
+    @Transactional
+    public void acquire(String fileName, long count) {
+        if (fileName == null || count == 0) return;
+        storedImageRepository.addReferences(fileName, count);
+    }
+
+    /** 画像の参照数を1減らす (呼び出し元のトランザクションに参加する) */
+    @Transactional
+    public void release(String fileName) {
+        if (fileName == null) return;
+        storedImageRepository.addReferences(fileName, -1);
+    }
+
+    /**
+     * 型名の代表画像が未登録なら登録する。
+     * 同じ型名の初回登録が同時に走ることがあるため独立したトランザクションで行い、
+     * 一意制約違反 (先を越された) は無視する。呼び出し元が画像の行を更新する前に呼ぶこと
+     * (同じ行の更新待ちで止まらないように)。
+     */
+    public void assignModelImageIfAbsent(String modelName, String fileName) {
+        if (modelName == null || modelName.isBlank() || fileName == null) return;
+        if (modelImageRepository.existsById(modelName)) return;
+        try {
+            requiresNew.executeWithoutResult(status ->
+                    storedImageRepository.findByFileName(fileName).ifPresent(image -> {
+                        modelImageRepository.saveAndFlush(new ModelImage(modelName, image));
+                        storedImageRepository.addReferences(fileName, 1);
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("型名 {} の代表画像は登録済みです", modelName);
+        }
+    }
+
+    /** 参照されないまま猶予期間を過ぎた画像をファイルごと削除する */
+    @Scheduled(fixedDelayString = "${app.image.purge-interval:3600000}")
+    public void purgeUnreferenced() {
+        List<StoredImage> candidates = storedImageRepository.findUnreferencedBefore(LocalDateTime.now().minus(orphanGrace));
+        int deleted = 0;
+        for (StoredImage image : candidates) {
+            Boolean removed = requiresNew.execute(status -> {
+                // 参照数がずれていた場合に備え、実際に使っている資産がないことを確かめてから消す
+                long inUse = assetRepository.countByImagePath(image.getFileName());
+                if (inUse > 0) {
+                    storedImageRepository.resetReferences(image.getSha256(), inUse);
+                    log.warn("画像 {} の参照数を {} に補正しました", image.getFileName(), inUse);
+                    return false;
+                }
+                return storedImageRepository.deleteIfUnreferenced(image.getSha256()) > 0;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                imageStorageService.delete(image.getFileName());
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("参照されていない画像 {} 件を削除しました", deleted);
+        }
+    }
+
+    /**
+     * カタログが空なら既存資産の画像から作成する (起動時に1回)。
+     * 旧方式 (UUID 名) の画像は内容のハッシュ名に複製して資産を付け替え、内容が同じ画像は1つにまとめる。
+     * 古いファイルはコミット後に削除するため、途中で失敗しても資産の画像は失われない。
+     */
+    public void backfill() {
+        if (storedImageRepository.count() > 0) return;
+        List<String> obsolete = new ArrayList<>();
+        Integer registered = requiresNew.execute(status -> {
+            Map<String, String> nameBySha = new HashMap<>();
+            Map<String, Long> refCounts = new HashMap<>();
+            for (Object[] row : assetRepository.countGroupByImagePath()) {
+                String path = (String) row[0];
+                long count = (Long) row[1];
+                Optional<String> sha256 = imageStorageService.contentHash(path);
+                if (sha256.isEmpty()) {
+                    log.warn("画像ファイルが見つからないためカタログに登録しません: {}", path);
+                    continue;
+                }
+                String canonical = nameBySha.computeIfAbsent(sha256.get(),
+                        sha -> ImageStorageService.contentName(sha, path));
+                if (!canonical.equals(path)) {
+                    copy(path, canonical);
+                    assetRepository.replaceImagePath(path, canonical);
+                    obsolete.add(path);
+                }
+                refCounts.merge(canonical, count, Long::sum);
+            }
+
+            List<ModelImage> modelImages = new ArrayList<>();
+            Map<String, StoredImage> images = new HashMap<>();
+            nameBySha.forEach((sha, name) -> images.put(name, new StoredImage(sha, name, 0, LocalDateTime.now())));
+            for (Object[] row : assetRepository.findImagePathGroupByModelName()) {
+                StoredImage image = images.get((String) row[1]);
+                if (image == null) continue;
+                modelImages.add(new ModelImage((String) row[0], image));
+                refCounts.merge(image.getFileName(), 1L, Long::sum);
+            }
+            images.values().forEach(image -> image.setRefCount(refCounts.getOrDefault(image.getFileName(), 0L)));
+            storedImageRepository.saveAll(images.values());
+            modelImageRepository.saveAll(modelImages);
+            return images.size();
+        });
+        obsolete.forEach(imageStorageService::delete);
+        if (registered != null && registered > 0) {
+            log.info("画像カタログを作成しました ({} 件、重複・旧形式のファイル {} 件を整理)", registered, obsolete.size());
+        }
+    }
+
+    /**
+     * SHA-256 の画像を登録し、カタログ上のファイル名を返す。
+     * 登録済み (参照がなくなって削除待ちのものを含む) ならアップロード日時を更新して削除対象から外す。
+     */
+    private String register(String sha256, String fileName) {
+        try {
+            return requiresNew.execute(status -> {
+                Optional<StoredImage> existing = storedImageRepository.findById(sha256);
+                if (existing.isPresent()) {
+                    existing.get().setUploadedAt(LocalDateTime.now());
+                    return existing.get().getFileName();
+                }
+                storedImageRepository.saveAndFlush(new StoredImage(sha256, fileName, 0, LocalDateTime.now()));
+                return fileName;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 同じ画像が同時にアップロードされた
+            return storedImageRepository.findById(sha256).map(StoredImage::getFileName).orElseThrow(() -> e);
+        }
+    }
+
+    private void copy(String from, String to) {
+        try {
+            imageStorageService.copy(from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("画像の複製に失敗しました: " + from, e);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 資産画像の保存と派生画像 (一覧用サムネイル・詳細用縮小版) の生成。
+ *
+ * <p>アップロードされた画像は内容の SHA-256 をファイル名にして保存するため、
+ * 同じ写真を何度アップロードしてもディスク上は1つになる。縮小・再エンコードは
+ * imageExecutor で後から行い、リクエストは保存が終わった時点で返す。
+ * 派生画像ができるまでは画面に元画像の URL を返す。
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageService.class);
+
+    /** 派生画像の置き場 (アップロードディレクトリ配下) */
+    public static final String DERIVED_DIR = "derived";
+
+    private static final Set<String> ALLOWED_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".bmp", ".webp");
+
+    /** 派生画像の種類 (この順に生成し、最後の一覧用サムネイルができた時点で生成済みとみなす) */
+    public enum Variant {
+        /** 詳細・編集画面用 (長辺を縮小。元画像が既に小さければ作らず元画像を使う) */
+        DETAIL("detail", 640, false),
+        /** 一覧用 (正方形に切り抜き) */
+        THUMB("thumb", 96, true);
+
+        private final String suffix;
+        private final int size;
+        private final boolean square;
+
+        Variant(String suffix, int size, boolean square) {
+            this.suffix = suffix;
+            this.size = size;
+            this.square = square;
+        }
+
+        /** 元画像から作る意味があるか (縮小しない再エンコードは元画像より大きくなりうる) */
+        private boolean appliesTo(BufferedImage source) {
+            return square || Math.max(source.getWidth(), source.getHeight()) > size;
+        }
+    }
+
+    private final Path baseDir;
+    private final Path derivedDir;
+    private final TaskExecutor imageExecutor;
+    /** 保存済みファイルの索引 (画面表示や配信のたびにファイルの有無を確認しないため) */
+    private final UploadFileIndex uploadFileIndex;
+
+    public ImageStorageService(@Value("${app.upload.dir:uploads/assets}") String uploadDir,
+                               @Qualifier("imageExecutor") TaskExecutor imageExecutor,
+                               UploadFileIndex uploadFileIndex) {
+        this.baseDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.derivedDir = baseDir.resolve(DERIVED_DIR);
+        this.imageExecutor = imageExecutor;
+        this.uploadFileIndex = uploadFileIndex;
+    }
+
+    /**
+     * アップロード画像を保存し、保存したファイル名 (アップロードディレクトリからの相対パス) を返す。
+     * 同じ内容のファイルが既にあればそれを使う。派生画像は呼び出し側が scheduleDerivatives で予約する
+     * (画像カタログで別の拡張子の同一画像に寄せられる場合があるため)。
+     */
+    public String store(MultipartFile file) throws IOException {
+        Files.createDirectories(baseDir);
+        Path temp = Files.createTempFile(baseDir, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String fileName = HexFormat.of().formatHex(sha256.digest()) + extensionOf(file.getOriginalFilename());
+            Path target = baseDir.resolve(fileName);
+            if (!Files.exists(target)) {
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // 同じ画像が同時にアップロードされた。内容は同一なので既存のものを使う
+                }
+            }
+            if (!uploadFileIndex.contains(fileName)) {
+                uploadFileIndex.refresh(fileName);
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** 保存済みファイルの内容の SHA-256 (ファイルがなければ empty) */
+    public Optional<String> contentHash(String fileName) {
+        Path file = baseDir.resolve(fileName);
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        MessageDigest sha256 = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), sha256)) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return Optional.of(HexFormat.of().formatHex(sha256.digest()));
+        } catch (IOException e) {
+            log.warn("画像の読み込みに失敗しました: {} ({})", fileName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** 内容のハッシュから決まるファイル名 (SHA-256 + 元の拡張子) */
+    public static String contentName(String sha256, String originalName) {
+        return sha256 + extensionOf(originalName);
+    }
+
+    /** ファイル名が内容のハッシュ由来ならその SHA-256 (旧方式の UUID 名などは empty) */
+    public static Optional<String> hashOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return stem.length() == 64 && stem.chars().allMatch(HexFormat::isHexDigit) ? Optional.of(stem) : Optional.empty();
+    }
+
+    /** 保存済みファイルを別名で複製する (複製先が既にあれば何もしない) */
+    public void copy(String from, String to) throws IOException {
+        Path target = baseDir.resolve(to);
+        if (Files.exists(target)) return;
+        Path temp = Files.createTempFile(baseDir, "copy-", ".tmp");
+        try {
+            Files.copy(baseDir.resolve(from), temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            uploadFileIndex.refresh(to);
+        } catch (FileAlreadyExistsException e) {
+            // 同時に複製された。内容は同一
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 元画像だけを削除する。派生画像は拡張子を除いた名前で共有されるため、
+     * 同じ内容の別拡張子の画像が残る場合 (カタログで寄せた重複の破棄) はこちらを使う。
+     */
+    public void deleteOriginal(String fileName) {
+        try {
+            uploadFileIndex.remove(fileName);
+            Files.deleteIfExists(baseDir.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("画像の削除に失敗しました: {} ({})", fileName, e.getMessage());
+        }
+    }
+
+    /** 元画像と派生画像を削除する (どこからも参照されなくなった画像の片付け用) */
+    public void delete(String fileName) {
+        try {
+            for (Variant variant : Variant.values()) {
+                String derived = derivedName(fileName, variant);
+                uploadFileIndex.remove(derivedPath(derived));
+                Files.deleteIfExists(derivedDir.resolve(derived));
+            }
+            uploadFileIndex.remove(fileName);
+            Files.deleteIfExists(baseDir.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("画像の削除に失敗しました: {} ({})", fileName, e.getMessage());
+        }
+    }
+
+    /** 一覧用サムネイルの URL (未生成なら元画像) */
+    public String thumbnailUrl(String imagePath) {
+        return url(imagePath, Variant.THUMB);
+    }
+
+    /** 詳細画面用の縮小画像の URL (未生成なら元画像) */
+    public String detailUrl(String imagePath) {
+        return url(imagePath, Variant.DETAIL);
+    }
+
+    public String url(String imagePath, Variant variant) {
+        if (imagePath == null) return null;
+        String derived = derivedPath(derivedName(imagePath, variant));
+        return uploadFileIndex.contains(derived)
+                ? "/uploads/" + derived
+                : "/uploads/" + imagePath;
+    }
+
+    /** 派生画像のアップロードディレクトリからの相対パス */
+    private static String derivedPath(String derivedName) {
+        return DERIVED_DIR + "/" + derivedName;
+    }
+
+    /** 派生画像のファイル名 (元画像の拡張子を除いた名前 + 種類、JPEG 固定) */
+    public static String derivedName(String imagePath, Variant variant) {
+        int dot = imagePath.lastIndexOf('.');
+        String stem = dot > 0 ? imagePath.substring(0, dot) : imagePath;
+        return stem + "_" + variant.suffix + ".jpg";
+    }
+
+    /** 派生画像が揃っていなければ生成を予約する */
+    public void scheduleDerivatives(String imagePath) {
+        if (uploadFileIndex.contains(derivedPath(derivedName(imagePath, Variant.THUMB)))) return;
+        try {
+            imageExecutor.execute(() -> generateDerivatives(imagePath));
+        } catch (TaskRejectedException e) {
+            // 次回起動時の走査で生成される。それまでは元画像を表示する
+            log.warn("画像処理が混み合っているため派生画像の生成を見送りました: {}", imagePath);
+        }
+    }
+
+    /** 起動時に派生画像が足りない元画像を探して生成する (旧方式で保存された画像を含む) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scanExisting() {
+        try {
+            if (Files.isDirectory(baseDir)) {
+                try (Stream<Path> files = Files.list(baseDir)) {
+                    files.filter(Files::isRegularFile)
+                            .map(p -> p.getFileName().toString())
+                            .filter(name -> ALLOWED_EXTENSIONS.contains(extensionOf(name)))
+                            .forEach(this::scheduleDerivatives);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("アップロードディレクトリの走査に失敗しました: {}", e.getMessage());
+        }
+    }
+
+    private void generateDerivatives(String imagePath) {
+        try {
+            BufferedImage source = ImageIO.read(baseDir.resolve(imagePath).toFile());
+            if (source == null) {
+                log.info("縮小に対応していない画像形式のため元画像を表示します: {}", imagePath);
+                return;
+            }
+            Files.createDirectories(derivedDir);
+            for (Variant variant : Variant.values()) {
+                String name = derivedName(imagePath, variant);
+                if (!variant.appliesTo(source) || uploadFileIndex.contains(derivedPath(name))) continue;
+                Path temp = Files.createTempFile(derivedDir, "derive-", ".tmp");
+                try {
+                    writeJpeg(resize(source, variant), temp);
+                    Files.move(temp, derivedDir.resolve(name),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    uploadFileIndex.refresh(derivedPath(name));
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("派生画像の生成に失敗しました: {} ({})", imagePath, e.getMessage());
+        }
+    }
+
+    /**
+     * 指定サイズに縮小する。一度に大きく縮めるとジャギーが出るため半分ずつ段階的に縮め、
+     * 透過は白背景に合成する (JPEG で保存するため)。
+     */
+    static BufferedImage resize(BufferedImage source, Variant variant) {
+        int srcW = source.getWidth();
+        int srcH = source.getHeight();
+        int cropX = 0, cropY = 0, cropW = srcW, cropH = srcH;
+        int targetW, targetH;
+        if (variant.square) {
+            int side = Math.min(srcW, srcH);
+            cropX = (srcW - side) / 2;
+            cropY = (srcH - side) / 2;
+            cropW = cropH = side;
+            targetW = targetH = Math.min(variant.size, side);
+        } else {
+            double scale = Math.min(1.0, (double) variant.size / Math.max(srcW, srcH));
+            targetW = Math.max(1, (int) Math.round(srcW * scale));
+            targetH = Math.max(1, (int) Math.round(srcH * scale));
+        }
+
+        BufferedImage current = draw(source, cropX, cropY, cropW, cropH, cropW, cropH);
+        while (current.getWidth() / 2 >= targetW && current.getHeight() / 2 >= targetH) {
+            current = draw(current, 0, 0, current.getWidth(), current.getHeight(),
+                    current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != targetW || current.getHeight() != targetH) {
+            current = draw(current, 0, 0, current.getWidth(), current.getHeight(), targetW, targetH);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage src, int sx, int sy, int sw, int sh, int w, int h) {
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, sx, sy, sx + sw, sy + sh, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.85f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /** 拡張子 (小文字・ドット付き)。画像として扱わない拡張子は空文字 */
+    static String extensionOf(String fileName) {
+        if (fileName == null || !fileName.contains(".")) return "";
+        String ext = fileName.substring(fileName.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return ALLOWED_EXTENSIONS.contains(ext) ? ext : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
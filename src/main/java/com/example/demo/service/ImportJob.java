@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * CSV一括登録ジョブ1件分の状態。
+ * ワーカースレッドが更新し、進捗APIのスレッドが読むためカウンタは atomic / volatile で持つ。
+ * 検証のみのジョブは、登録できる行の一覧を登録ジョブに引き渡すまで保持する。
+ */
+@Getter
+public class ImportJob {
+
+    public enum Type { ASSET, EMPLOYEE }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /** IMPORT: 読みながら登録 / VALIDATE: 検証のみ (DB は書き換えない) / COMMIT: 検証済みの行を登録 */
+    public enum Mode { IMPORT, VALIDATE, COMMIT }
+
+    private final String id;
+    private final Type type;
+    private final Mode mode;
+    /** 進捗の分母 (IMPORT / VALIDATE はファイルのバイト数、COMMIT は行数) */
+    private final long totalBytes;
+    private final Path errorFile;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+    private volatile LongSupplier bytesRead = () -> 0;
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private volatile long successCount;
+
+    /** このジョブで登録した資産ID (ラベル一括印刷用) */
+    private final List<Long> createdAssetIds = new ArrayList<>();
+
+    /** 検証のみのジョブで登録できると判定した行 (CsvService の *ImportRow)。登録ジョブに渡したら破棄する */
+    @Getter(AccessLevel.NONE)
+    private List<?> validatedRows;
+
+    public ImportJob(String id, Type type, Mode mode, long totalBytes, Path errorFile) {
+        this.id = id;
+        this.type = type;
+        this.mode = mode;
+        this.totalBytes = totalBytes;
+        this.errorFile = errorFile;
+    }
+
+    void start(LongSupplier bytesRead) {
+        this.bytesRead = bytesRead;
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    void rowProcessed() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    void errorRecorded() {
+        errorCount.incrementAndGet();
+    }
+
+    synchronized void assetsCreated(List<Long> assetIds) {
+        createdAssetIds.addAll(assetIds);
+    }
+
+    public synchronized List<Long> getCreatedAssetIds() {
+        return List.copyOf(createdAssetIds);
+    }
+
+    synchronized void validated(List<?> rows) {
+        this.validatedRows = rows;
+    }
+
+    /** 検証済みの行を取り出す (登録ジョブに渡せるのは1回だけ。渡せない場合は null) */
+    synchronized List<?> takeValidatedRows() {
+        if (status != Status.COMPLETED || validatedRows == null || validatedRows.isEmpty()) return null;
+        List<?> rows = validatedRows;
+        validatedRows = null;
+        return rows;
+    }
+
+    /** 検証済みの行を取り出さずに戻す (登録ジョブを受け付けられなかった場合) */
+    synchronized void restoreValidatedRows(List<?> rows) {
+        this.validatedRows = rows;
+    }
+
+    public synchronized boolean isCommittable() {
+        return status == Status.COMPLETED && validatedRows != null && !validatedRows.isEmpty();
+    }
+
+    void complete(long successCount) {
+        this.successCount = successCount;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.message = message;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /** 進捗APIで返すスナップショットを作る */
+    public Snapshot snapshot() {
+        long rows = rowsProcessed.get();
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double elapsedSec = startedAt != null ? Duration.between(startedAt, end).toMillis() / 1000.0 : 0;
+        double rowsPerSecond = elapsedSec > 0 ? rows / elapsedSec : 0;
+
+        // 総行数は読み終えるまで分からないため、読み込んだバイト数の割合で残り時間を見積もる
+        long read = isFinished() ? totalBytes : bytesRead.getAsLong();
+        int percent = totalBytes > 0 ? (int) Math.min(100, read * 100 / totalBytes) : (isFinished() ? 100 : 0);
+        Long etaSeconds = null;
+        if (status == Status.RUNNING && read > 0 && elapsedSec > 0) {
+            etaSeconds = Math.round(elapsedSec * (totalBytes - read) / read);
+        } else if (isFinished()) {
+            etaSeconds = 0L;
+        }
+
+        return new Snapshot(id, type, mode, status, rows, successCount, errorCount.get(),
+                Math.round(rowsPerSecond * 10) / 10.0, percent, etaSeconds,
+                startedAt, finishedAt, message, isCommittable());
+    }
+
+    /** VALIDATE の successCount は登録できる行数。committable は登録ジョブをまだ開始できるか */
+    public record Snapshot(String id, Type type, Mode mode, Status status,
+                           long rowsProcessed, long successCount, long errorCount,
+                           double rowsPerSecond, int progressPercent, Long etaSeconds,
+                           Instant startedAt, Instant finishedAt, String message, boolean committable) {}
+}
@@ -0,0 +1,287 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CSV一括登録をバックグラウンドで実行するジョブ管理。
+ * アップロードは一時ファイルに退避してすぐにジョブIDを返し、取込は importExecutor 上で行う。
+ * エラーは行ごとにエラーCSVへ書き出し、完了したジョブは保持期間が過ぎたら破棄する。
+ *
+ * <p>検証のみのジョブは登録できる行の一覧をジョブに保持し、{@link #commit(String)} で
+ * その一覧を登録する別ジョブを開始する (ファイルを読み直さない)。保持期間が過ぎると一覧も破棄される。
+ *
+ * <p>ジョブ全体の処理時間は csv.import (type / mode / outcome)、処理した行数とエラー件数は
+ * csv.import.rows / csv.import.errors としてメトリクスに記録する。
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final CsvService csvService;
+    @Qualifier("importExecutor")
+    private final TaskExecutor importExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /** 完了したジョブの結果を保持する期間 */
+    @Value("${app.import.job-retention:1h}")
+    private Duration retention;
+
+    /**
+     * 取込ジョブを登録してキューに積む。validateOnly なら検証のみ行う。
+     * 実行枠が埋まっている場合は TaskRejectedException が送出される。
+     */
+    public ImportJob submit(ImportJob.Type type, MultipartFile file, boolean validateOnly) throws IOException {
+        Path upload = Files.createTempFile("import-", ".csv");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // 受信の中断やディスク不足で一時ファイルを残さない
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        Path errorFile = Files.createTempFile("import-errors-", ".csv");
+
+        ImportJob.Mode mode = validateOnly ? ImportJob.Mode.VALIDATE : ImportJob.Mode.IMPORT;
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), type, mode, Files.size(upload), errorFile);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, upload));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(upload);
+            Files.deleteIfExists(errorFile);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * 検証のみのジョブで登録できると判定した行を登録するジョブを開始する。
+     * 実行枠が埋まっている場合は TaskRejectedException が送出される (検証結果は残る)。
+     *
+     * @throws IllegalStateException 検証が終わっていない、登録できる行がない、または登録済み
+     */
+    public ImportJob commit(String validationJobId) throws IOException {
+        ImportJob validation = findById(validationJobId)
+                .filter(job -> job.getMode() == ImportJob.Mode.VALIDATE)
+                .orElseThrow(() -> new IllegalStateException("検証ジョブが見つかりません"));
+        List<?> rows = validation.takeValidatedRows();
+        if (rows == null) {
+            throw new IllegalStateException("登録できる検証結果がありません (登録済みか、検証が終わっていません)");
+        }
+
+        Path errorFile = Files.createTempFile("import-errors-", ".csv");
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), validation.getType(),
+                ImportJob.Mode.COMMIT, rows.size(), errorFile);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> runCommit(job, rows));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            validation.restoreValidatedRows(rows);
+            Files.deleteIfExists(errorFile);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> findById(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * アップロードされたCSVを取り込む (検証のみのジョブでは検証まで)。
+     * 完了を見たクライアントはすぐにエラーCSVを取得しに来るため、エラーCSVを閉じてから完了・失敗にする。
+     */
+    private void run(ImportJob job, Path upload) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            job.complete(process(job, upload));
+        } catch (Exception e) {
+            log.warn("CSV取込ジョブ {} が失敗しました", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            recordMetrics(job, sample);
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("一時ファイルの削除に失敗しました: {}", upload);
+            }
+        }
+    }
+
+    /** CSVを読んで取込 (または検証) し、登録した (登録できる) 件数を返す。戻る時点でエラーCSVは閉じている */
+    private int process(ImportJob job, Path upload) throws IOException {
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(upload));
+             BufferedWriter errorWriter = openErrorWriter(job)) {
+            job.start(in::getCount);
+            CsvService.ImportListener listener = listener(job, errorWriter);
+
+            if (job.getMode() == ImportJob.Mode.VALIDATE) {
+                List<?> rows = switch (job.getType()) {
+                    case ASSET -> csvService.validateAssetCsv(in, listener);
+                    case EMPLOYEE -> csvService.validateEmployeeCsv(in, listener);
+                };
+                job.validated(rows);
+                return rows.size();
+            }
+            return switch (job.getType()) {
+                case ASSET -> csvService.importAssetCsv(in, listener);
+                case EMPLOYEE -> csvService.importEmployeeCsv(in, listener);
+            };
+        }
+    }
+
+    /** 検証済みの行を登録する (run と同じく、エラーCSVを閉じてから完了・失敗にする) */
+    private void runCommit(ImportJob job, List<?> rows) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            job.complete(commitRows(job, rows));
+        } catch (Exception e) {
+            log.warn("CSV登録ジョブ {} が失敗しました", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            recordMetrics(job, sample);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int commitRows(ImportJob job, List<?> rows) throws IOException {
+        try (BufferedWriter errorWriter = openErrorWriter(job)) {
+            // 進捗は処理した行数で数える
+            job.start(() -> job.getRowsProcessed().get());
+            CsvService.ImportListener listener = listener(job, errorWriter);
+            return switch (job.getType()) {
+                case ASSET -> csvService.commitAssetRows((List<CsvService.AssetImportRow>) rows, listener);
+                case EMPLOYEE -> csvService.commitEmployeeRows((List<CsvService.EmployeeImportRow>) rows, listener);
+            };
+        }
+    }
+
+    /** 終了したジョブの処理時間・行数・エラー件数を記録する */
+    private void recordMetrics(ImportJob job, Timer.Sample sample) {
+        String type = job.getType().name().toLowerCase(Locale.ROOT);
+        String mode = job.getMode().name().toLowerCase(Locale.ROOT);
+        sample.stop(Timer.builder("csv.import")
+                .description("CSV取込ジョブ全体の処理時間")
+                .tag("type", type)
+                .tag("mode", mode)
+                .tag("outcome", job.getStatus() == ImportJob.Status.COMPLETED ? "completed" : "failed")
+                .register(meterRegistry));
+        Counter.builder("csv.import.rows").tag("type", type).tag("mode", mode)
+                .register(meterRegistry).increment(job.getRowsProcessed().get());
+        Counter.builder("csv.import.errors").tag("type", type).tag("mode", mode)
+                .register(meterRegistry).increment(job.getErrorCount().get());
+    }
+
+    private static BufferedWriter openErrorWriter(ImportJob job) throws IOException {
+        BufferedWriter errorWriter = Files.newBufferedWriter(job.getErrorFile(), StandardCharsets.UTF_8);
+        errorWriter.write('\uFEFF');
+        errorWriter.write("エラー内容\r\n");
+        return errorWriter;
+    }
+
+    /** 進捗をジョブに、エラーをエラーCSVに書く listener */
+    private static CsvService.ImportListener listener(ImportJob job, BufferedWriter errorWriter) {
+        return new CsvService.ImportListener() {
+            @Override
+            public void rowProcessed() {
+                job.rowProcessed();
+            }
+
+            @Override
+            public void assetsCreated(List<Long> assetIds) {
+                job.assetsCreated(assetIds);
+            }
+
+            @Override
+            public void error(String message) {
+                job.errorRecorded();
+                try {
+                    errorWriter.write('"' + message.replace("\"", "\"\"") + "\"\r\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /** 保持期間を過ぎた完了ジョブとエラーCSVを破棄する */
+    @Scheduled(fixedDelayString = "${app.import.job-purge-interval:60000}")
+    public void purgeExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(threshold)) return false;
+            try {
+                Files.deleteIfExists(job.getErrorFile());
+            } catch (IOException e) {
+                log.warn("エラーCSVの削除に失敗しました: {}", job.getErrorFile());
+            }
+            return true;
+        });
+    }
+
+    /** 読み込んだバイト数を数える (進捗・残り時間の見積もり用) */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
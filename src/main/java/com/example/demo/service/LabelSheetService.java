@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LabelItem;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.EmployeeRepository;
+import com.google.zxing.common.BitMatrix;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * QRコードのラベルシート (A4・1ページ = 1枚のPNG) を生成する。
+ * ページ単位でラベル情報を読み込み・描画・書き出しするため、件数が多くても
+ * メモリに載るのは常に1ページ分だけ。複数ページは ZIP にまとめてそのままレスポンスへ流す。
+ */
+@Service
+@RequiredArgsConstructor
+public class LabelSheetService {
+
+    /** A4 を 200dpi で描画したサイズ */
+    private static final int PAGE_WIDTH = 1654;
+    private static final int PAGE_HEIGHT = 2339;
+    private static final int PAGE_MARGIN = 60;
+    private static final int COLUMNS = 4;
+    private static final int ROWS = 6;
+    public static final int LABELS_PER_PAGE = COLUMNS * ROWS;
+
+    private static final int CELL_WIDTH = (PAGE_WIDTH - PAGE_MARGIN * 2) / COLUMNS;
+    private static final int CELL_HEIGHT = (PAGE_HEIGHT - PAGE_MARGIN * 2) / ROWS;
+    private static final int QR_SIZE = 260;
+    private static final int CAPTION_MAX_CHARS = 20;
+
+    private static final Font CODE_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 26);
+    private static final Font CAPTION_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 22);
+
+    private final AssetRepository assetRepository;
+    private final EmployeeRepository employeeRepository;
+    private final QrCodeService qrCodeService;
+    @Qualifier("qrLabelExecutor")
+    private final TaskExecutor qrLabelExecutor;
+
+    /** ラベル情報をページ単位で返す読み出し元。null または空リストで終端 */
+    @FunctionalInterface
+    public interface LabelSource {
+        List<LabelItem> nextPage();
+    }
+
+    /** 指定IDの資産 (IDはページ単位で問い合わせる) */
+    public LabelSource assetsById(List<Long> ids) {
+        List<Long> sorted = ids.stream().distinct().sorted().toList();
+        return new LabelSource() {
+            private int offset = 0;
+
+            @Override
+            public List<LabelItem> nextPage() {
+                if (offset >= sorted.size()) return List.of();
+                List<Long> slice = sorted.subList(offset, Math.min(offset + LABELS_PER_PAGE, sorted.size()));
+                offset += slice.size();
+                return assetRepository.findLabelItemsByIdIn(slice);
+            }
+        };
+    }
+
+    /** 指定ステータスの資産 */
+    public LabelSource assetsByStatus(AssetStatus status) {
+        return keyset(afterId -> assetRepository.findLabelItemsByStatus(status, afterId, Limit.of(LABELS_PER_PAGE)));
+    }
+
+    /** 指定部署に所属する社員 */
+    public LabelSource employeesByDepartment(Long departmentId) {
+        return keyset(afterId -> employeeRepository.findLabelItemsByDepartment(
+                departmentId, afterId, Limit.of(LABELS_PER_PAGE)));
+    }
+
+    /**
+     * ラベルシートを ZIP (labels-001.png, labels-002.png, ...) として書き出す。
+     *
+     * @return 出力したラベル数
+     */
+    public int writeZip(LabelSource source, OutputStream out) throws IOException {
+        int total = 0;
+        int pageNo = 0;
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PNG は圧縮済みなので ZIP 側では圧縮しない
+        zip.setLevel(0);
+        List<LabelItem> items;
+        while ((items = source.nextPage()) != null && !items.isEmpty()) {
+            BufferedImage page = renderPage(items);
+            zip.putNextEntry(new ZipEntry("labels-%03d.png".formatted(++pageNo)));
+            ImageIO.write(page, "PNG", zip);
+            zip.closeEntry();
+            zip.flush();
+            total += items.size();
+        }
+        if (pageNo == 0) {
+            zip.putNextEntry(new ZipEntry("empty.txt"));
+            zip.write("対象のラベルがありません\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        return total;
+    }
+
+    /**
+     * 1ページ分を描画する。QRコードの生成は専用スレッドプールで並列に行い、
+     * 描画 (Graphics2D はスレッドセーフでない) は呼び出しスレッドで順に行う。
+     */
+    BufferedImage renderPage(List<LabelItem> items) {
+        List<CompletableFuture<BitMatrix>> matrices = items.stream()
+                .map(item -> CompletableFuture.supplyAsync(
+                        () -> qrCodeService.encodeModules(item.code()), qrLabelExecutor))
+                .toList();
+
+        BufferedImage page = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = page.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            for (int i = 0; i < items.size(); i++) {
+                int x = PAGE_MARGIN + (i % COLUMNS) * CELL_WIDTH;
+                int y = PAGE_MARGIN + (i / COLUMNS) * CELL_HEIGHT;
+                drawLabel(g, x, y, items.get(i), matrices.get(i).join());
+            }
+        } finally {
+            g.dispose();
+        }
+        return page;
+    }
+
+    private void drawLabel(Graphics2D g, int x, int y, LabelItem item, BitMatrix matrix) {
+        // 切り取り線
+        g.setColor(Color.LIGHT_GRAY);
+        g.drawRect(x, y, CELL_WIDTH - 1, CELL_HEIGHT - 1);
+
+        // モジュール単位で整数倍に拡大して描画する (ぼやけないように)
+        int scale = Math.max(1, QR_SIZE / matrix.getWidth());
+        int size = matrix.getWidth() * scale;
+        int qrX = x + (CELL_WIDTH - size) / 2;
+        int qrY = y + 30;
+        g.setColor(Color.BLACK);
+        for (int my = 0; my < matrix.getHeight(); my++) {
+            for (int mx = 0; mx < matrix.getWidth(); mx++) {
+                if (matrix.get(mx, my)) {
+                    g.fillRect(qrX + mx * scale, qrY + my * scale, scale, scale);
+                }
+            }
+        }
+
+        int textY = qrY + size + 40;
+        drawCentered(g, item.code(), CODE_FONT, x, textY);
+        if (item.caption() != null && !item.caption().isBlank()) {
+            drawCentered(g, truncate(item.caption()), CAPTION_FONT, x, textY + 34);
+        }
+    }
+
+    private void drawCentered(Graphics2D g, String text, Font font, int cellX, int baseline) {
+        g.setFont(font);
+        int width = g.getFontMetrics().stringWidth(text);
+        g.drawString(text, cellX + (CELL_WIDTH - width) / 2, baseline);
+    }
+
+    private String truncate(String caption) {
+        return caption.length() <= CAPTION_MAX_CHARS ? caption : caption.substring(0, CAPTION_MAX_CHARS - 1) + "…";
+    }
+
+    /** ID順に afterId 以降を読み進める読み出し元 */
+    private LabelSource keyset(LongFunction<List<LabelItem>> query) {
+        return new LabelSource() {
+            private long afterId = 0;
+            private boolean done = false;
+
+            @Override
+            public List<LabelItem> nextPage() {
+                if (done) return List.of();
+                List<LabelItem> items = query.apply(afterId);
+                if (items.size() < LABELS_PER_PAGE) {
+                    done = true;
+                }
+                if (!items.isEmpty()) {
+                    afterId = items.get(items.size() - 1).id();
+                }
+                return items;
+            }
+        };
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetLiveUpdate;
+import com.example.demo.dto.DashboardStats;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.event.AssetChangedEvent;
+import com.example.demo.event.AssetsImportedEvent;
+import com.example.demo.event.LoanEvent;
+import com.example.demo.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 資産一覧・ダッシュボードを開いている画面へ変更を配信する (Server-Sent Events)。
+ *
+ * <p>貸出・返却・資産の編集はコミット後のイベントで受け取り、各購読者の送信キューに積むだけで戻る。
+ * 実際の送信は liveUpdateExecutor 上で購読者ごとに順に行うため、遅いブラウザがあっても
+ * 書き込み側は待たない。キューは購読者ごとに上限があり、溢れた購読者には resync を送って
+ * 切断する (画面側で再読み込みして最新状態に合わせ直す)。
+ */
+@Service
+public class LiveUpdateService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    private final AssetRepository assetRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final TaskExecutor executor;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration emitterTimeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /** 最後に配信した集計 (スナップショットは更新のたびに差し替わるため参照比較で変化を判定する) */
+    private volatile DashboardStats lastStats;
+
+    public LiveUpdateService(AssetRepository assetRepository,
+                             DashboardStatsService dashboardStatsService,
+                             @Qualifier("liveUpdateExecutor") TaskExecutor executor,
+                             @Value("${app.live.subscriber-buffer:256}") int bufferSize,
+                             @Value("${app.live.max-subscribers:200}") int maxSubscribers,
+                             @Value("${app.live.emitter-timeout:30m}") Duration emitterTimeout) {
+        this.assetRepository = assetRepository;
+        this.dashboardStatsService = dashboardStatsService;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    /**
+     * 購読を開始する。上限を超える場合は empty。
+     * 接続はタイムアウトで閉じるが、ブラウザの EventSource が自動で再接続する。
+     */
+    public Optional<SseEmitter> subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return Optional.of(emitter);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // ---- ドメインイベント → 配信 (いずれもコミット後に呼ばれる) ----
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        if (subscribers.isEmpty()) return;
+        AssetStatus status = event.action() == LoanEvent.Action.CHECKOUT ? AssetStatus.IN_USE : AssetStatus.STOCK;
+        String holder = event.action() == LoanEvent.Action.CHECKOUT ? event.employeeName() : null;
+        broadcast("asset", new AssetLiveUpdate(event.assetId(), status, status.getDisplayName(), holder, null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        if (subscribers.isEmpty()) return;
+        switch (event.changeType()) {
+            case CREATED -> broadcast("assets-added", Map.of("count", 1));
+            case DELETED -> broadcast("asset-deleted", Map.of("assetId", event.assetId()));
+            // 一覧1行分の読み直しは配信スレッドで行う (書き込み側を待たせない)
+            case UPDATED -> runAsync(() -> assetRepository.findListRowById(event.assetId())
+                    .ifPresent(row -> broadcast("asset", new AssetLiveUpdate(row.id(), row.status(),
+                            row.status().getDisplayName(), row.currentEmployeeName(), row))));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        if (subscribers.isEmpty()) return;
+        long count = event.countsByType().values().stream().mapToLong(Long::longValue).sum();
+        broadcast("assets-added", Map.of("count", count));
+    }
+
+    /**
+     * ダッシュボードの集計を配信する。集計は各イベントで差分更新されるため、
+     * 一定間隔で変化の有無だけを見て送る (一括貸出などで連続した変更は1回にまとまる)。
+     */
+    @Scheduled(fixedDelayString = "${app.live.stats-interval:1000}")
+    public void pushStats() {
+        if (subscribers.isEmpty()) return;
+        DashboardStats stats = dashboardStatsService.getStats();
+        if (stats == lastStats) return;
+        lastStats = stats;
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("totalAssets", stats.totalAssets());
+        view.put("totalEmployees", stats.totalEmployees());
+        view.put("activeAssignments", stats.activeAssignments());
+        view.put("overdueAssignments", stats.overdueAssignments());
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        stats.byStatus().forEach((status, count) -> byStatus.put(status.getDisplayName(), count));
+        view.put("byStatus", byStatus);
+        Map<String, Long> byType = new LinkedHashMap<>();
+        stats.byType().forEach((type, count) -> byType.put(type.getDisplayName(), count));
+        view.put("byType", byType);
+        view.put("activeByDepartment", stats.activeByDepartment());
+        broadcast("stats", view);
+    }
+
+    // ---- 配信 ----
+
+    /** 全購読者のキューに積む (ブロックしない) */
+    void broadcast(String name, Object data) {
+        Message message = new Message(name, data);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(message)) {
+                subscriber.overflowed = true;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber));
+        } catch (TaskRejectedException e) {
+            log.warn("リアルタイム配信が混み合っているため購読を切断します");
+            subscriber.draining.set(false);
+            close(subscriber);
+        }
+    }
+
+    /** 購読者1件分のキューを送り切る。同じ購読者の drain は同時に1つしか動かない */
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.overflowed) {
+                // 取りこぼしがあるため差分では追従できない。画面に再読み込みさせる
+                subscriber.emitter.send(SseEmitter.event().name("resync").data(""));
+                close(subscriber);
+                return;
+            }
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(message.name())
+                        .data(message.data(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // ブラウザが閉じられた等
+            close(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // drain 終了と同時に積まれた分を取りこぼさないよう再確認する
+        if (!subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void runAsync(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (TaskRejectedException e) {
+            log.warn("リアルタイム配信が混み合っているため変更通知を破棄しました");
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException ignored) {
+            // 既に完了済み
+        }
+    }
+
+    private record Message(String name, Object data) {}
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Message> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean overflowed;
+
+        private Subscriber(SseEmitter emitter, Queue<Message> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -1,26 +1,144 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BatchOperationRequest;
+import com.example.demo.dto.BatchOperationResult;
 import com.example.demo.entity.*;
+import com.example.demo.event.LoanEvent;
 import com.example.demo.repository.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * 貸出・返却。
+ * 複数のスキャン端末から同じ資産を同時に操作した場合は、Asset の楽観ロック
+ * (version) または貸出中履歴の一意制約 (Assignment.openAssetId) で後勝ちの側が失敗する。
+ * 失敗したトランザクションは最初からやり直すため、呼び出し側には
+ * 「成功」か「現在のステータスでは操作できない」のどちらかだけが返る。
+ *
+ * <p>処理時間は asset.operation (operation = checkout / checkin / batch、outcome = success / failure)、
+ * 競合による再試行の回数は asset.operation.retries としてメトリクスに記録する。
+ */
 @Service
-@RequiredArgsConstructor
 public class OperationService {
 
+    private static final Logger log = LoggerFactory.getLogger(OperationService.class);
+
     private final AssetRepository assetRepository;
     private final AssignmentRepository assignmentRepository;
     private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter retries;
+    private final int maxAttempts;
+
+    public OperationService(AssetRepository assetRepository,
+                            AssignmentRepository assignmentRepository,
+                            EmployeeRepository employeeRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.operation.max-attempts:5}") int maxAttempts) {
+        this.assetRepository = assetRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.retries = Counter.builder("asset.operation.retries")
+                .description("同時更新の競合による貸出・返却の再試行回数")
+                .register(meterRegistry);
+        this.maxAttempts = maxAttempts;
+    }
 
     /**
      * チェックアウト (貸出)
      */
-    @Transactional
     public Assignment checkout(String employeeCode, String qrCodeId) {
+        return timed("checkout",
+                () -> withRetry(() -> transactionTemplate.execute(status -> doCheckout(employeeCode, qrCodeId))));
+    }
+
+    /**
+     * チェックイン (返却)
+     */
+    public Assignment checkin(String qrCodeId) {
+        return timed("checkin", () -> withRetry(() -> transactionTemplate.execute(status -> doCheckin(qrCodeId))));
+    }
+
+    /**
+     * 一括貸出・返却。資産は IN 句1回でまとめて読み込み、ステータスはメモリ上で検証する。
+     * 検証を通った項目の状態変更と履歴はすべて1トランザクションで書き込み (JDBC バッチ)、
+     * 項目ごとの成否を返す。同時更新で競合した場合はバッチ全体を最初から検証し直す。
+     */
+    public BatchOperationResult executeBatch(String employeeCode, List<BatchOperationRequest.Item> items) {
+        return timed("batch", () -> withRetry(() -> transactionTemplate.execute(status -> doBatch(employeeCode, items))));
+    }
+
+    /** 処理時間を記録する (操作できなかった場合も outcome=failure として記録する) */
+    private <T> T timed(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("asset.operation")
+                    .description("貸出・返却の処理時間 (再試行を含む)")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 同時更新による失敗 (楽観ロック・一意制約違反・デッドロック) の場合にトランザクションごとやり直す。
+     * やり直すと最新の状態を読み直すため、競合に負けた側は通常ステータス検査で業務エラーになる。
+     */
+    private <T> T withRetry(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("同時更新の競合が解消しませんでした ({}回試行)", attempt, e);
+                    throw new RuntimeException("他の端末で同時に操作されました。もう一度お試しください", e);
+                }
+                log.debug("同時更新の競合のため再試行します ({}回目): {}", attempt, e.getMessage());
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20L * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("処理が中断されました", e);
+        }
+    }
+
+    private Assignment doCheckout(String employeeCode, String qrCodeId) {
         Employee employee = employeeRepository.findByEmployeeCode(employeeCode)
                 .orElseThrow(() -> new RuntimeException("社員が見つかりません: " + employeeCode));
 
@@ -41,14 +159,12 @@ public class OperationService {
         assignment.setEmployee(employee);
         assignment.setAsset(asset);
         assignment.setCheckoutDate(LocalDate.now());
-        return assignmentRepository.save(assignment);
+        Assignment saved = assignmentRepository.save(assignment);
+        eventPublisher.publishEvent(toEvent(LoanEvent.Action.CHECKOUT, saved));
+        return saved;
     }
 
-    /**
-     * チェックイン (返却)
-     */
-    @Transactional
-    public Assignment checkin(String qrCodeId) {
+    private Assignment doCheckin(String qrCodeId) {
         Asset asset = assetRepository.findByQrCodeId(qrCodeId)
                 .orElseThrow(() -> new RuntimeException("資産が見つかりません: " + qrCodeId));
 
@@ -68,6 +184,111 @@ public class OperationService {
         asset.setStatus(AssetStatus.STOCK);
         assetRepository.save(asset);
 
+        eventPublisher.publishEvent(toEvent(LoanEvent.Action.CHECKIN, assignment));
         return assignment;
     }
+
+    private BatchOperationResult doBatch(String employeeCode, List<BatchOperationRequest.Item> items) {
+        boolean hasCheckout = items.stream().anyMatch(item -> item.action() == LoanEvent.Action.CHECKOUT);
+        Employee employee = hasCheckout && employeeCode != null && !employeeCode.isBlank()
+                ? employeeRepository.findByEmployeeCode(employeeCode).orElse(null)
+                : null;
+
+        Set<String> qrCodeIds = items.stream()
+                .map(BatchOperationRequest.Item::qrCodeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Asset> assets = qrCodeIds.isEmpty() ? Map.of()
+                : assetRepository.findByQrCodeIdIn(qrCodeIds).stream()
+                        .collect(Collectors.toMap(Asset::getQrCodeId, asset -> asset));
+
+        // 返却対象の貸出中履歴もまとめて1回で取得
+        List<Long> checkinAssetIds = items.stream()
+                .filter(item -> item.action() == LoanEvent.Action.CHECKIN)
+                .map(item -> assets.get(item.qrCodeId()))
+                .filter(Objects::nonNull)
+                .map(Asset::getId)
+                .distinct()
+                .toList();
+        Map<Long, Assignment> openLoans = new HashMap<>();
+        if (!checkinAssetIds.isEmpty()) {
+            for (Assignment loan : assignmentRepository.findByAssetIdInAndReturnDateIsNull(checkinAssetIds)) {
+                openLoans.put(loan.getAsset().getId(), loan);
+            }
+        }
+
+        // 以降はメモリ上で検証・更新する。資産・履歴は管理状態なのでコミット時にまとめて書き込まれる
+        LocalDate today = LocalDate.now();
+        Set<Long> returnedInBatch = new HashSet<>();
+        List<BatchOperationResult.ItemResult> results = new ArrayList<>();
+        for (BatchOperationRequest.Item item : items) {
+            Asset asset = assets.get(item.qrCodeId());
+            if (asset == null) {
+                results.add(failure(item, "資産が見つかりません: " + item.qrCodeId()));
+                continue;
+            }
+
+            if (item.action() == LoanEvent.Action.CHECKOUT) {
+                if (employee == null) {
+                    results.add(failure(item, "社員が見つかりません: " + employeeCode));
+                    continue;
+                }
+                if (asset.getStatus() != AssetStatus.STOCK) {
+                    results.add(failure(item,
+                            "この資産は貸出できません（現在のステータス: " + asset.getStatus().getDisplayName() + "）"));
+                    continue;
+                }
+                if (returnedInBatch.contains(asset.getId())) {
+                    // 同じバッチ内で返却済みの資産。INSERT は UPDATE より先に流れるため、
+                    // 返却した履歴の open_asset_id を先に外しておく
+                    assignmentRepository.flush();
+                }
+                asset.setStatus(AssetStatus.IN_USE);
+                Assignment loan = new Assignment();
+                loan.setEmployee(employee);
+                loan.setAsset(asset);
+                loan.setCheckoutDate(today);
+                assignmentRepository.save(loan);
+                openLoans.put(asset.getId(), loan);
+                eventPublisher.publishEvent(toEvent(LoanEvent.Action.CHECKOUT, loan));
+                results.add(success(item, employee.getName() + " さんに " + asset.getProductName() + " を貸出しました"));
+            } else {
+                if (asset.getStatus() != AssetStatus.IN_USE) {
+                    results.add(failure(item,
+                            "この資産は返却できません（現在のステータス: " + asset.getStatus().getDisplayName() + "）"));
+                    continue;
+                }
+                Assignment loan = openLoans.remove(asset.getId());
+                if (loan == null) {
+                    results.add(failure(item, "貸出履歴が見つかりません"));
+                    continue;
+                }
+                loan.setReturnDate(today);
+                asset.setStatus(AssetStatus.STOCK);
+                returnedInBatch.add(asset.getId());
+                eventPublisher.publishEvent(toEvent(LoanEvent.Action.CHECKIN, loan));
+                results.add(success(item,
+                        asset.getProductName() + " が返却されました（" + loan.getEmployee().getName() + " さん）"));
+            }
+        }
+        return BatchOperationResult.of(results);
+    }
+
+    private static BatchOperationResult.ItemResult success(BatchOperationRequest.Item item, String message) {
+        return new BatchOperationResult.ItemResult(item.qrCodeId(), item.action(), true, message);
+    }
+
+    private static BatchOperationResult.ItemResult failure(BatchOperationRequest.Item item, String message) {
+        return new BatchOperationResult.ItemResult(item.qrCodeId(), item.action(), false, message);
+    }
+
+    /** 貸出・返却イベントを組み立てる (リスナーはコミット後に呼ばれる) */
+    private LoanEvent toEvent(LoanEvent.Action action, Assignment assignment) {
+        Employee employee = assignment.getEmployee();
+        Asset asset = assignment.getAsset();
+        return new LoanEvent(action, asset.getId(), asset.getQrCodeId(),
+                employee.getId(), employee.getName(),
+                employee.getDepartment() != null ? employee.getDepartment().getName() : null,
+                assignment.getCheckoutDate());
+    }
 }
@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.event.OrganizationChangedEvent;
+import com.example.demo.repository.DepartmentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 部署・課のマスタをメモリに持ち、取込やフォーム表示から DB を引かずに参照させる。
+ *
+ * <p>部署・課の変更は年に数回程度のため、全体を1つの {@link OrganizationSnapshot} として持ち、
+ * DepartmentService / SectionService での更新 (コミット後の OrganizationChangedEvent) ごとに
+ * 読み直して丸ごと差し替える。参照側はロックなしで現在のスナップショットを受け取る。
+ * 初回の参照時に読み込むため、起動時にマスタが空でも問題ない。
+ */
+@Service
+@RequiredArgsConstructor
+public class OrganizationDirectory {
+
+    private final DepartmentRepository departmentRepository;
+
+    private volatile OrganizationSnapshot snapshot;
+    /** 読み直しの直列化用 (DB アクセスを挟むため synchronized でなくロックを使う) */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /** 現在のスナップショット */
+    public OrganizationSnapshot snapshot() {
+        OrganizationSnapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /** 部署・課の変更後に読み直す */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * DB から読み直して差し替える。
+     * 同時に複数の更新がコミットされても、後から読み直した方が必ず両方の変更を含むよう直列に行う。
+     */
+    OrganizationSnapshot reload() {
+        reloadLock.lock();
+        try {
+            // findAll は課も同時に取得する (1クエリ)
+            OrganizationSnapshot loaded = new OrganizationSnapshot(departmentRepository.findAll());
+            snapshot = loaded;
+            return loaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Section;
+
+import java.util.*;
+
+/**
+ * ある時点の部署・課の一覧 (変更不可)。
+ *
+ * <p>ID・名前での検索と部署ごとの課一覧を引けるよう、生成時に索引まで作っておく。
+ * 参照側は同じインスタンスを使い続ける限り一貫した内容を見る (取込中に部署が変わっても途中で混ざらない)。
+ */
+public final class OrganizationSnapshot {
+
+    /** 部署1件分 */
+    public record DepartmentEntry(Long id, String name) {}
+
+    /** 課1件分 */
+    public record SectionEntry(Long id, String name, Long departmentId) {}
+
+    private final List<DepartmentEntry> departments;
+    private final Map<Long, DepartmentEntry> departmentsById;
+    private final Map<String, DepartmentEntry> departmentsByName;
+    private final Map<Long, SectionEntry> sectionsById;
+    private final Map<Long, List<SectionEntry>> sectionsByDepartment;
+
+    /** 課を取得済みの部署から作る (部署・課とも ID 順に並べる) */
+    OrganizationSnapshot(Collection<Department> source) {
+        List<DepartmentEntry> departments = new ArrayList<>();
+        Map<Long, DepartmentEntry> departmentsById = new HashMap<>();
+        Map<String, DepartmentEntry> departmentsByName = new HashMap<>();
+        Map<Long, SectionEntry> sectionsById = new HashMap<>();
+        Map<Long, List<SectionEntry>> sectionsByDepartment = new HashMap<>();
+
+        List<Department> sorted = new ArrayList<>(source);
+        sorted.sort(Comparator.comparing(Department::getId));
+        for (Department d : sorted) {
+            DepartmentEntry dept = new DepartmentEntry(d.getId(), d.getName());
+            departments.add(dept);
+            departmentsById.put(dept.id(), dept);
+            departmentsByName.put(dept.name(), dept);
+
+            List<SectionEntry> sections = new ArrayList<>();
+            for (Section s : d.getSections()) {
+                SectionEntry sec = new SectionEntry(s.getId(), s.getName(), dept.id());
+                sections.add(sec);
+                sectionsById.put(sec.id(), sec);
+            }
+            sections.sort(Comparator.comparing(SectionEntry::id));
+            sectionsByDepartment.put(dept.id(), List.copyOf(sections));
+        }
+
+        this.departments = List.copyOf(departments);
+        this.departmentsById = Map.copyOf(departmentsById);
+        this.departmentsByName = Map.copyOf(departmentsByName);
+        this.sectionsById = Map.copyOf(sectionsById);
+        this.sectionsByDepartment = Map.copyOf(sectionsByDepartment);
+    }
+
+    /** 全部署 (ID 順) */
+    public List<DepartmentEntry> departments() {
+        return departments;
+    }
+
+    public Optional<DepartmentEntry> department(Long id) {
+        return Optional.ofNullable(id == null ? null : departmentsById.get(id));
+    }
+
+    public Optional<DepartmentEntry> departmentByName(String name) {
+        return Optional.ofNullable(name == null ? null : departmentsByName.get(name));
+    }
+
+    public Optional<SectionEntry> section(Long id) {
+        return Optional.ofNullable(id == null ? null : sectionsById.get(id));
+    }
+
+    /** 部署に属する課 (ID 順、部署がなければ空) */
+    public List<SectionEntry> sections(Long departmentId) {
+        if (departmentId == null) return List.of();
+        return sectionsByDepartment.getOrDefault(departmentId, List.of());
+    }
+
+    /** 部署内の課を名前で引く */
+    public Optional<SectionEntry> sectionByName(Long departmentId, String name) {
+        return sections(departmentId).stream()
+                .filter(s -> s.name().equals(name))
+                .findFirst();
+    }
+}
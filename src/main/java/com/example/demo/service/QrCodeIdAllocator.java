@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.IdSequence;
+import com.example.demo.repository.IdSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * QRコードID (AST-XXXXXXXX) の採番。
+ * id_sequences テーブルから番号をブロック単位で予約し (行ロックで複数インスタンス間でも重複しない)、
+ * ブロック内はメモリ上のカウンタから払い出すため、通常はDBに問い合わせない。
+ *
+ * <p>番号は Crockford 形式の base32 で8文字に変換する。先頭文字は16進数に現れない英字
+ * (G〜Z) に限るため、旧方式のランダム16進ID (UUID 由来) と衝突しない。
+ * 使われずに終わったブロックの残りは欠番になる。
+ */
+@Service
+public class QrCodeIdAllocator {
+
+    static final String SEQUENCE_NAME = "qr_code_id";
+    private static final String PREFIX = "AST-";
+
+    /** 2文字目以降に使う文字 (I / L / O / U を除く32文字) */
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    /** 先頭文字 (16進数に現れない16文字) */
+    private static final char[] LEADING = "GHJKMNPQRSTVWXYZ".toCharArray();
+    /** 表現できる番号の上限 (先頭4bit + 残り7文字 × 5bit) */
+    static final long MAX_VALUE = 1L << 39;
+
+    private final IdSequenceRepository idSequenceRepository;
+    private final TransactionTemplate requiresNew;
+    private final int blockSize;
+
+    /** 現在払い出し中のブロック。使い切ったら reserveBlock で差し替える */
+    private volatile Block block = new Block(0, 0);
+    /** ブロックの差し替え用 (DB アクセスを挟むため、仮想スレッドをキャリアに固定する synchronized は使わない) */
+    private final ReentrantLock reserveLock = new ReentrantLock();
+
+    public QrCodeIdAllocator(IdSequenceRepository idSequenceRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.qrcode.id-block-size:100}") int blockSize) {
+        this.idSequenceRepository = idSequenceRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /** 新しいQRコードIDを払い出す */
+    public String nextId() {
+        return format(nextValue());
+    }
+
+    long nextValue() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.limit) {
+                return value;
+            }
+            reserveLock.lock();
+            try {
+                // 他スレッドが差し替え済みならそのブロックから取り直す
+                if (block == current) {
+                    block = reserveBlock();
+                }
+            } finally {
+                reserveLock.unlock();
+            }
+        }
+    }
+
+    /** 番号を AST- + 8文字に変換する */
+    static String format(long value) {
+        if (value < 0 || value >= MAX_VALUE) {
+            throw new IllegalStateException("QRコードIDの採番範囲を超えました: " + value);
+        }
+        char[] chars = new char[8];
+        for (int i = 7; i >= 1; i--) {
+            chars[i] = DIGITS[(int) (value & 31)];
+            value >>>= 5;
+        }
+        chars[0] = LEADING[(int) value];
+        return PREFIX + new String(chars);
+    }
+
+    /**
+     * DB上の系列を blockSize だけ進め、その範囲を新しいブロックとして返す。
+     * 独立したトランザクションで行うため、呼び出し元のトランザクションがロールバックしても
+     * 予約は取り消されない (番号が再利用されることはない)。
+     */
+    private Block reserveBlock() {
+        try {
+            return requiresNew.execute(status -> lockAndAdvance());
+        } catch (DataIntegrityViolationException e) {
+            // 系列行の初回作成が他インスタンスと競合した。作成済みの行で取り直す
+            return requiresNew.execute(status -> lockAndAdvance());
+        }
+    }
+
+    private Block lockAndAdvance() {
+        IdSequence sequence = idSequenceRepository.findForUpdateByName(SEQUENCE_NAME)
+                .orElseGet(() -> idSequenceRepository.saveAndFlush(new IdSequence(SEQUENCE_NAME, 1)));
+        long start = sequence.getNextValue();
+        sequence.setNextValue(start + blockSize);
+        return new Block(start, start + blockSize);
+    }
+
+    /** 予約済みの番号範囲 [next, limit) */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -1,41 +1,72 @@
 package com.example.demo.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Map;
 
+/**
+ * QRコードの生成。
+ * 生成時間は qrcode.encode (kind = png: 画面表示用の PNG / modules: ラベル用)、
+ * PNG キャッシュの命中率は cache.gets (cache = qrcode) としてメトリクスに記録する。
+ */
 @Service
 public class QrCodeService {
 
     private static final int DEFAULT_SIZE = 250;
+    private static final int DEFAULT_MARGIN = 1;
+
+    /**
+     * 生成済み PNG のキャッシュ (キー: テキスト・サイズ・余白)。
+     * 同じ内容からは常に同じ画像になるため無効化は不要で、合計バイト数で上限を設ける。
+     */
+    private final Cache<QrKey, byte[]> cache;
+    private final Timer pngTimer;
+    private final Timer modulesTimer;
+
+    public QrCodeService(MeterRegistry meterRegistry,
+                         @Value("${app.qrcode.cache-max-bytes:33554432}") long cacheMaxBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((QrKey key, byte[] png) -> png.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "qrcode");
+        this.pngTimer = encodeTimer(meterRegistry, "png");
+        this.modulesTimer = encodeTimer(meterRegistry, "modules");
+    }
+
+    private static Timer encodeTimer(MeterRegistry meterRegistry, String kind) {
+        return Timer.builder("qrcode.encode")
+                .description("QRコードの生成時間 (キャッシュ命中時は含まない)")
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     /**
      * QRコード画像を PNG バイト配列として生成
      */
     public byte[] generateQrCodeImage(String text, int width, int height) {
-        try {
-            QRCodeWriter writer = new QRCodeWriter();
-            Map<EncodeHintType, Object> hints = Map.of(
-                    EncodeHintType.CHARACTER_SET, "UTF-8",
-                    EncodeHintType.MARGIN, 1
-            );
-            BitMatrix matrix = writer.encode(text, BarcodeFormat.QR_CODE, width, height, hints);
-
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, "PNG", out);
-            return out.toByteArray();
-        } catch (WriterException | IOException e) {
-            throw new RuntimeException("QRコード生成に失敗しました", e);
-        }
+        return cache.get(new QrKey(text, width, height, DEFAULT_MARGIN), this::encode);
     }
 
     /**
@@ -61,4 +92,63 @@ public class QrCodeService {
     public String generateQrCodeBase64(String text) {
         return generateQrCodeBase64(text, DEFAULT_SIZE, DEFAULT_SIZE);
     }
+
+    /**
+     * 画像の ETag を返す。内容はテキスト・サイズ・余白だけで決まるため、
+     * 画像を生成せずにキーのハッシュから算出できる (304 応答で PNG を作らずに済む)。
+     */
+    public String etag(String text, int width, int height) {
+        QrKey key = new QrKey(text, width, height, DEFAULT_MARGIN);
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha256.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"qr-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 1モジュール = 1ピクセルの最小サイズでQRコードを生成する (余白なし)。
+     * ラベルシートのように呼び出し側で拡大して描画する場合に使う。キャッシュはしない。
+     */
+    public BitMatrix encodeModules(String text) {
+        return modulesTimer.record(() -> encodeModulesUntimed(text));
+    }
+
+    private BitMatrix encodeModulesUntimed(String text) {
+        try {
+            Map<EncodeHintType, Object> hints = Map.of(
+                    EncodeHintType.CHARACTER_SET, "UTF-8",
+                    EncodeHintType.MARGIN, 0
+            );
+            return new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 0, 0, hints);
+        } catch (WriterException e) {
+            throw new RuntimeException("QRコード生成に失敗しました", e);
+        }
+    }
+
+    private byte[] encode(QrKey key) {
+        return pngTimer.record(() -> encodePng(key));
+    }
+
+    private byte[] encodePng(QrKey key) {
+        try {
+            QRCodeWriter writer = new QRCodeWriter();
+            Map<EncodeHintType, Object> hints = Map.of(
+                    EncodeHintType.CHARACTER_SET, "UTF-8",
+                    EncodeHintType.MARGIN, key.margin()
+            );
+            BitMatrix matrix = writer.encode(key.text(), BarcodeFormat.QR_CODE, key.width(), key.height(), hints);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+            return out.toByteArray();
+        } catch (WriterException | IOException e) {
+            throw new RuntimeException("QRコード生成に失敗しました", e);
+        }
+    }
+
+    /** キャッシュキー */
+    private record QrKey(String text, int width, int height, int margin) {}
 }
@@ -0,0 +1,112 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetScanView;
+import com.example.demo.dto.EmployeeScanView;
+import com.example.demo.entity.AssetStatus;
+import com.example.demo.event.*;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AssignmentRepository;
+import com.example.demo.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * スキャン画面の社員・資産照会 (社員番号 / QRコードID → 表示用の値) を読み込み時にキャッシュする。
+ * 同じ社員を複数台の貸出で何度も照会するため、2回目以降はDBに触れずメモリから返す。
+ *
+ * <p>社員・資産・部署の変更や貸出・返却はイベント (コミット後) で該当エントリを破棄する。
+ * 見つからなかった結果はキャッシュしないため、新規登録時の破棄は不要。
+ * 件数上限に加えて書き込みからの有効期限も設け、万一の取りこぼしも一定時間で解消する。
+ */
+@Service
+public class ScanLookupService {
+
+    private final EmployeeRepository employeeRepository;
+    private final AssetRepository assetRepository;
+    private final AssignmentRepository assignmentRepository;
+
+    private final Cache<String, EmployeeScanView> employees;
+    private final Cache<String, AssetScanView> assets;
+
+    public ScanLookupService(EmployeeRepository employeeRepository,
+                             AssetRepository assetRepository,
+                             AssignmentRepository assignmentRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.scan-cache.max-size:10000}") long maxSize,
+                             @Value("${app.scan-cache.ttl:10m}") Duration ttl) {
+        this.employeeRepository = employeeRepository;
+        this.assetRepository = assetRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.employees = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.assets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, employees, "scan.employee");
+        CaffeineCacheMetrics.monitor(meterRegistry, assets, "scan.asset");
+    }
+
+    /** 社員番号で照会 (部署名・課名を含む) */
+    public Optional<EmployeeScanView> findEmployee(String employeeCode) {
+        return Optional.ofNullable(employees.get(employeeCode, code ->
+                employeeRepository.findByEmployeeCode(code).map(EmployeeScanView::of).orElse(null)));
+    }
+
+    /** QRコードIDで照会 (貸出中なら現在の利用者名を含む) */
+    public Optional<AssetScanView> findAsset(String qrCodeId) {
+        return Optional.ofNullable(assets.get(qrCodeId, qr ->
+                assetRepository.findByQrCodeId(qr).map(asset -> {
+                    String currentEmployee = null;
+                    if (asset.getStatus() == AssetStatus.IN_USE) {
+                        currentEmployee = assignmentRepository.findByAssetIdAndReturnDateIsNull(asset.getId())
+                                .map(assignment -> assignment.getEmployee().getName())
+                                .orElse(null);
+                    }
+                    return AssetScanView.of(asset, currentEmployee);
+                }).orElse(null)));
+    }
+
+    // ---- 破棄 (いずれもコミット後に呼ばれる) ----
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        assets.invalidate(event.qrCodeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        assets.invalidate(event.qrCodeId());
+    }
+
+    /**
+     * 社員の更新・削除。社員番号の変更もありうるため、ID→社員番号の逆引きは持たずに社員側を全件破棄する
+     * (社員の編集は貸出・返却に比べてまれ)。利用者名が変わるため資産側も破棄する。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.changeType() == EmployeeChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        employees.invalidateAll();
+        assets.invalidateAll();
+    }
+
+    /** 部署名・課名の変更 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChanged(OrganizationChangedEvent event) {
+        employees.invalidateAll();
+    }
+}
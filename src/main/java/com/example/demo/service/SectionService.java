@@ -1,8 +1,10 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.Section;
+import com.example.demo.event.OrganizationChangedEvent;
 import com.example.demo.repository.SectionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,13 +16,15 @@ import java.util.Optional;
 public class SectionService {
 
     private final SectionRepository sectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Section> findAll() {
         return sectionRepository.findAll();
     }
 
+    /** IDで検索 (部署も同時に取得) */
     public Optional<Section> findById(Long id) {
-        return sectionRepository.findById(id);
+        return sectionRepository.findWithDepartmentById(id);
     }
 
     public List<Section> findByDepartmentId(Long departmentId) {
@@ -33,11 +37,14 @@ public class SectionService {
 
     @Transactional
     public Section save(Section section) {
-        return sectionRepository.save(section);
+        Section saved = sectionRepository.save(section);
+        eventPublisher.publishEvent(new OrganizationChangedEvent());
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         sectionRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrganizationChangedEvent());
     }
 }
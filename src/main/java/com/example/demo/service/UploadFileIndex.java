@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * アップロードディレクトリのファイル一覧 (サイズ・ETag・Content-Type) をメモリに持つ。
+ *
+ * <p>画像の配信はこの索引だけを見て応答し、ファイルシステムへの stat は行わない。
+ * 起動時に一度走査し、以降は ImageStorageService がファイルを書き込み・削除するたびに更新する。
+ * 索引にないパスは配信しないため、ディレクトリ外を指すパスも自然に弾かれる。
+ */
+@Service
+public class UploadFileIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadFileIndex.class);
+
+    /** 内容のハッシュを名前に持つファイル (元画像 / 派生画像 / 事前圧縮版)。内容が変わらないため長期キャッシュできる */
+    private static final Pattern CONTENT_NAMED = Pattern.compile("^[0-9a-f]{64}[._].*");
+
+    /** 配信するファイル1件分の情報 */
+    public record Entry(Path path, long size, String etag, MediaType contentType, boolean immutable) {}
+
+    private final Path baseDir;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UploadFileIndex(@Value("${app.upload.dir:uploads/assets}") String uploadDir) {
+        this.baseDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    /** 起動時にアップロードディレクトリ (派生画像のサブディレクトリを含む) を読み込む */
+    @PostConstruct
+    void load() {
+        if (!Files.isDirectory(baseDir)) return;
+        try (Stream<Path> files = Files.walk(baseDir, 2)) {
+            files.filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                    .forEach(p -> {
+                        try {
+                            BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                            if (attrs.isRegularFile()) {
+                                String name = baseDir.relativize(p).toString().replace('\\', '/');
+                                entries.put(name, entry(p, attrs));
+                            }
+                        } catch (IOException e) {
+                            log.debug("ファイル情報の取得に失敗しました: {} ({})", p, e.getMessage());
+                        }
+                    });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("アップロードディレクトリの読み込みに失敗しました: {}", e.getMessage());
+        }
+        log.info("アップロードファイル {} 件を索引に登録しました", entries.size());
+    }
+
+    /** アップロードディレクトリからの相対パス (例: abc.jpg, derived/abc_thumb.jpg) で引く */
+    public Optional<Entry> get(String name) {
+        return Optional.ofNullable(entries.get(name));
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /** ファイルを書き込んだ後に呼ぶ (1回だけ stat して索引を更新する) */
+    public void refresh(String name) {
+        Path path = baseDir.resolve(name);
+        try {
+            entries.put(name, entry(path, Files.readAttributes(path, BasicFileAttributes.class)));
+        } catch (NoSuchFileException e) {
+            entries.remove(name);
+        } catch (IOException e) {
+            log.warn("ファイル情報の取得に失敗しました: {} ({})", name, e.getMessage());
+        }
+    }
+
+    public void remove(String name) {
+        entries.remove(name);
+    }
+
+    /**
+     * 索引の1件を作る。ハッシュ名のファイルは名前がそのまま内容を表すので強い ETag に使い、
+     * 旧方式の名前のファイルはサイズと更新日時から作る。
+     */
+    private static Entry entry(Path path, BasicFileAttributes attrs) {
+        String fileName = path.getFileName().toString();
+        boolean immutable = CONTENT_NAMED.matcher(fileName).matches();
+        String etag = immutable
+                ? "\"" + fileName + "\""
+                : "\"" + Long.toHexString(attrs.size()) + "-" + Long.toHexString(attrs.lastModifiedTime().toMillis()) + "\"";
+        MediaType contentType = MediaTypeFactory.getMediaType(stripCompression(fileName))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new Entry(path, attrs.size(), etag, contentType, immutable);
+    }
+
+    private static String stripCompression(String fileName) {
+        if (fileName.endsWith(".gz")) return fileName.substring(0, fileName.length() - 3);
+        if (fileName.endsWith(".br")) return fileName.substring(0, fileName.length() - 3);
+        return fileName;
+    }
+}
@@ -29,9 +29,9 @@ public class UserService {
         return userRepository.findAll();
     }
 
-    /** IDで検索 */
+    /** IDで検索 (部署・課も同時に取得) */
     public Optional<User> findById(Long id) {
-        return userRepository.findById(id);
+        return userRepository.findWithDepartmentAndSectionById(id);
     }
 
     /** ユーザー名で検索 */
@@ -0,0 +1,107 @@
+package com.example.demo;
+
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AssignmentRepository;
+import com.example.demo.service.CsvService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 検証のみの取込が DB を書き換えずにファイル全体のエラーを返し、
+ * その結果を渡せばファイルを読み直さずに登録できることを確認する。
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class CsvImportValidationTests {
+
+	@Autowired
+	private CsvService csvService;
+	@Autowired
+	private AssetRepository assetRepository;
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@BeforeEach
+	void clear() {
+		assignmentRepository.deleteAllInBatch();
+		assetRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void validateOnlyReportsErrorsThenCommitsValidRows() {
+		StringBuilder csv = new StringBuilder("\uFEFF旧管理No,資産種別,品名,型名,製造番号\r\n");
+		for (int i = 0; i < 2500; i++) {
+			csv.append("V-").append(i).append(",PC,品名").append(i).append(",,SN-").append(i).append("\r\n");
+		}
+		csv.append("V-0,PC,重複,,SN-X\r\n");
+		csv.append("V-9999,TABLET,不正な種別,,\r\n");
+
+		List<String> errors = new ArrayList<>();
+		List<CsvService.AssetImportRow> rows = csvService.validateAssetCsv(stream(csv), listener(errors));
+
+		assertThat(rows).hasSize(2500);
+		assertThat(rows.get(0).lineNumber()).isEqualTo(2);
+		assertThat(errors).hasSize(2);
+		assertThat(errors.get(0)).startsWith("2502行目:").contains("ファイル内で重複");
+		assertThat(errors.get(1)).startsWith("2503行目:").contains("資産種別");
+		assertThat(assetRepository.count()).isZero();
+
+		errors.clear();
+		assertThat(csvService.commitAssetRows(rows, listener(errors))).isEqualTo(2500);
+		assertThat(errors).isEmpty();
+		assertThat(assetRepository.count()).isEqualTo(2500);
+	}
+
+	@Test
+	void readFailureMidFileIsNotCommittable() {
+		StringBuilder csv = new StringBuilder("\uFEFF旧管理No,資産種別,品名,型名,製造番号\r\n");
+		for (int i = 0; i < 100; i++) {
+			csv.append("R-").append(i).append(",PC,品名").append(i).append(",,SN-R").append(i).append("\r\n");
+		}
+		byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+		// 途中まで読ませてから読み込みエラーにする
+		InputStream failing = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("接続が切断されました");
+			}
+		});
+
+		List<String> errors = new ArrayList<>();
+		assertThatThrownBy(() -> csvService.validateAssetCsv(failing, listener(errors)))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(errors).anySatisfy(e -> assertThat(e).startsWith("ファイル読み込みエラー"));
+		assertThat(assetRepository.count()).isZero();
+	}
+
+	private static InputStream stream(CharSequence csv) {
+		return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static CsvService.ImportListener listener(List<String> errors) {
+		return new CsvService.ImportListener() {
+			@Override
+			public void rowProcessed() {
+			}
+
+			@Override
+			public void error(String message) {
+				errors.add(message);
+			}
+		};
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo;
+
+import com.example.demo.service.CsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CsvReader が RFC 4180 のクォート・改行を正しく扱うことを確認する。
+ */
+class CsvReaderTests {
+
+	@Test
+	void quotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+		List<List<String>> rows = readAll("PC-1,PC,\"ThinkPad, X1\",\"say \"\"hi\"\"\"\r\n"
+				+ "PC-2,PC,品名,\"1行目\n2行目\"\r\n"
+				+ "PC-3,携帯,,\r\n");
+
+		assertThat(rows).containsExactly(
+				List.of("PC-1", "PC", "ThinkPad, X1", "say \"hi\""),
+				List.of("PC-2", "PC", "品名", "1行目\n2行目"),
+				List.of("PC-3", "携帯", "", ""));
+	}
+
+	@Test
+	void lineNumbersCountPhysicalLines() throws IOException {
+		try (CsvReader csv = new CsvReader(new StringReader("\uFEFFa,\"x\ny\"\n\nb,c"))) {
+			assertThat(csv.next()).isTrue();
+			assertThat(csv.lineNumber()).isEqualTo(1);
+			assertThat(csv.field(0)).isEqualTo("a");
+
+			assertThat(csv.next()).isTrue();
+			assertThat(csv.isBlank()).isTrue();
+			assertThat(csv.lineNumber()).isEqualTo(3);
+
+			assertThat(csv.next()).isTrue();
+			assertThat(csv.lineNumber()).isEqualTo(4);
+			assertThat(csv.field(1)).isEqualTo("c");
+			assertThat(csv.field(5)).isEmpty();
+
+			assertThat(csv.next()).isFalse();
+		}
+	}
+
+	private static List<List<String>> readAll(String text) throws IOException {
+		List<List<String>> rows = new ArrayList<>();
+		try (CsvReader csv = new CsvReader(new StringReader(text))) {
+			while (csv.next()) {
+				List<String> row = new ArrayList<>();
+				for (int i = 0; i < csv.fieldCount(); i++) {
+					row.add(csv.field(i));
+				}
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+}
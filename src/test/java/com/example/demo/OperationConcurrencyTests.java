@@ -0,0 +1,125 @@
+package com.example.demo;
+
+import com.example.demo.entity.*;
+import com.example.demo.repository.*;
+import com.example.demo.service.OperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 複数のスキャン端末から同じ資産を同時に貸出・返却しても、
+ * 「1資産につき貸出中の履歴は1件まで」「資産ステータスと貸出中履歴が一致する」が崩れないことを確認する。
+ */
+@SpringBootTest(properties = "app.operation.max-attempts=20")
+@ActiveProfiles("h2")
+class OperationConcurrencyTests {
+
+	private static final int EMPLOYEES = 10;
+	private static final int ASSETS = 8;
+	private static final int THREADS = 32;
+	private static final int OPERATIONS = 4000;
+
+	@Autowired
+	private OperationService operationService;
+	@Autowired
+	private EmployeeRepository employeeRepository;
+	@Autowired
+	private AssetRepository assetRepository;
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+	@Autowired
+	private SectionRepository sectionRepository;
+	@Autowired
+	private DepartmentRepository departmentRepository;
+
+	@BeforeEach
+	void seed() {
+		assignmentRepository.deleteAllInBatch();
+		assetRepository.deleteAllInBatch();
+		employeeRepository.deleteAllInBatch();
+		sectionRepository.deleteAllInBatch();
+		departmentRepository.deleteAllInBatch();
+
+		for (int i = 0; i < EMPLOYEES; i++) {
+			Employee emp = new Employee();
+			emp.setEmployeeCode("STRESS-EMP" + i);
+			emp.setName("社員" + i);
+			employeeRepository.save(emp);
+		}
+		for (int i = 0; i < ASSETS; i++) {
+			Asset asset = new Asset();
+			asset.setAssetType(AssetType.PC);
+			asset.setQrCodeId("STRESS-AST" + i);
+			asset.setProductName("製品" + i);
+			asset.setStatus(AssetStatus.STOCK);
+			assetRepository.save(asset);
+		}
+	}
+
+	@Test
+	void parallelCheckoutAndCheckinKeepInvariants() throws Exception {
+		AtomicInteger checkouts = new AtomicInteger();
+		AtomicInteger checkins = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < OPERATIONS; i++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				String qrCodeId = "STRESS-AST" + random.nextInt(ASSETS);
+				try {
+					if (random.nextBoolean()) {
+						operationService.checkout("STRESS-EMP" + random.nextInt(EMPLOYEES), qrCodeId);
+						checkouts.incrementAndGet();
+					} else {
+						operationService.checkin(qrCodeId);
+						checkins.incrementAndGet();
+					}
+				} catch (RuntimeException e) {
+					// 「現在のステータスでは操作できない」は正常な競合結果
+					assertThat(e.getMessage()).doesNotContain("同時に操作されました");
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		pool.shutdown();
+
+		assertThat(checkouts.get() + checkins.get() + rejected.get()).isEqualTo(OPERATIONS);
+		assertThat(checkouts.get()).isPositive();
+		assertThat(checkins.get()).isPositive();
+
+		List<Assignment> open = assignmentRepository.findByReturnDateIsNull();
+		Map<Long, Long> openByAsset = open.stream()
+				.collect(Collectors.groupingBy(a -> a.getAsset().getId(), Collectors.counting()));
+
+		// 成功した貸出と返却の差がそのまま貸出中の件数になる (二重貸出・二重返却がない)
+		assertThat(open).hasSize(checkouts.get() - checkins.get());
+		assertThat(openByAsset.values()).allMatch(count -> count == 1);
+		for (Asset asset : assetRepository.findAll()) {
+			boolean onLoan = openByAsset.containsKey(asset.getId());
+			assertThat(asset.getStatus())
+					.as(asset.getQrCodeId())
+					.isEqualTo(onLoan ? AssetStatus.IN_USE : AssetStatus.STOCK);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.example.demo;
+
+import com.example.demo.dto.AssignmentHistoryFilter;
+import com.example.demo.dto.AssignmentHistoryPage;
+import com.example.demo.dto.AssignmentHistoryRow;
+import com.example.demo.entity.*;
+import com.example.demo.event.OrganizationChangedEvent;
+import com.example.demo.repository.*;
+import com.example.demo.service.AssignmentHistoryService;
+import com.example.demo.service.DashboardStatsService;
+import com.example.demo.service.OrganizationDirectory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 画面1リクエストあたりの SQL 発行数 (Hibernate statistics) が上限を超えないことを確認する。
+ * 一覧・詳細の行数を増やしても発行数が変わらない = N+1 が起きていないことを保証する。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class QueryBudgetTests {
+
+	private static final int EMPLOYEES = 20;
+	private static final int ASSETS = 30;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private DepartmentRepository departmentRepository;
+	@Autowired
+	private SectionRepository sectionRepository;
+	@Autowired
+	private EmployeeRepository employeeRepository;
+	@Autowired
+	private AssetRepository assetRepository;
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+	@Autowired
+	private AssignmentHistoryService assignmentHistoryService;
+	@Autowired
+	private DashboardStatsService dashboardStatsService;
+	@Autowired
+	private OrganizationDirectory organizationDirectory;
+
+	private Statistics statistics;
+	private Long assetId;
+	private Long employeeId;
+	private Long sectionId;
+
+	@BeforeEach
+	void seed() {
+		assignmentRepository.deleteAllInBatch();
+		assetRepository.deleteAllInBatch();
+		employeeRepository.deleteAllInBatch();
+		sectionRepository.deleteAllInBatch();
+		departmentRepository.deleteAllInBatch();
+
+		List<Section> sections = new ArrayList<>();
+		for (int d = 0; d < 3; d++) {
+			Department dept = new Department();
+			dept.setName("部署" + d);
+			departmentRepository.save(dept);
+			for (int s = 0; s < 2; s++) {
+				Section sec = new Section();
+				sec.setName("課" + d + "-" + s);
+				sec.setDepartment(dept);
+				sections.add(sectionRepository.save(sec));
+			}
+		}
+		sectionId = sections.get(0).getId();
+
+		List<Employee> employees = new ArrayList<>();
+		for (int i = 0; i < EMPLOYEES; i++) {
+			Section sec = sections.get(i % sections.size());
+			Employee emp = new Employee();
+			emp.setEmployeeCode("EMP" + i);
+			emp.setName("社員" + i);
+			emp.setDepartment(sec.getDepartment());
+			emp.setSection(sec);
+			employees.add(employeeRepository.save(emp));
+		}
+
+		for (int i = 0; i < ASSETS; i++) {
+			Asset asset = new Asset();
+			asset.setAssetType(i % 2 == 0 ? AssetType.PC : AssetType.MOBILE);
+			asset.setQrCodeId("AST-" + i);
+			asset.setProductName("製品" + i);
+			asset.setStatus(i % 2 == 0 ? AssetStatus.IN_USE : AssetStatus.STOCK);
+			assetRepository.save(asset);
+
+			// 過去の貸出履歴 + 偶数番目は現在も貸出中
+			Employee emp = employees.get(i % EMPLOYEES);
+			assignmentRepository.save(new Assignment(null, emp, asset,
+					LocalDate.now().minusDays(30), LocalDate.now().minusDays(10), null));
+			if (i % 2 == 0) {
+				assignmentRepository.save(new Assignment(null, emp, asset, LocalDate.now(), null, null));
+			}
+			if (i == 0) {
+				assetId = asset.getId();
+				employeeId = emp.getId();
+			}
+		}
+
+		dashboardStatsService.reconcile();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@Test
+	void dashboard() throws Exception {
+		// 集計はメモリ上のスナップショットから返すため DB には触れない
+		assertQueryBudget("/", 0);
+	}
+
+	@Test
+	void assetList() throws Exception {
+		assertQueryBudget("/assets", 2);
+	}
+
+	@Test
+	void assetDetail() throws Exception {
+		assertQueryBudget("/assets/" + assetId, 2);
+	}
+
+	@Test
+	void employeeList() throws Exception {
+		assertQueryBudget("/employees", 1);
+	}
+
+	@Test
+	void employeeDetail() throws Exception {
+		assertQueryBudget("/employees/" + employeeId, 2);
+	}
+
+	@Test
+	void sectionAndDepartmentLists() throws Exception {
+		assertQueryBudget("/sections", 1);
+		assertQueryBudget("/departments", 1);
+	}
+
+	@Test
+	void organizationFormsUseSnapshot() throws Exception {
+		// テストデータはリポジトリから直接入れているため、更新時と同じく読み直させる
+		organizationDirectory.onOrganizationChanged(new OrganizationChangedEvent());
+		Long departmentId = departmentRepository.findAll().get(0).getId();
+		assertQueryBudget("/employees/new", 0);
+		assertQueryBudget("/sections/api/by-department/" + departmentId, 0);
+	}
+
+	/** open-in-view なしでも描画中に関連を遅延読み込みしない (編集画面は1クエリで済む) */
+	@Test
+	void editFormsFetchAssociationsUpFront() throws Exception {
+		organizationDirectory.onOrganizationChanged(new OrganizationChangedEvent());
+		assertQueryBudget("/employees/" + employeeId + "/edit", 1);
+		assertQueryBudget("/sections/" + sectionId + "/edit", 1);
+	}
+
+	@Test
+	void assignmentHistory() {
+		statistics.clear();
+		AssignmentHistoryPage first = assignmentHistoryService.findPage(
+				new AssignmentHistoryFilter(null, null, null, null, null, null), null, 10);
+		assertThat(statistics.getPrepareStatementCount())
+				.as("履歴1ページの SQL 発行数").isLessThanOrEqualTo(1);
+		assertThat(first.items()).hasSize(10);
+		assertThat(first.nextCursor()).isNotNull();
+
+		// 続きのページは前ページと重ならず、新しい順に並ぶ
+		AssignmentHistoryPage second = assignmentHistoryService.findPage(
+				new AssignmentHistoryFilter(null, null, null, null, null, null), first.nextCursor(), 10);
+		AssignmentHistoryRow last = first.items().get(first.items().size() - 1);
+		assertThat(second.items()).isNotEmpty().allSatisfy(row -> assertThat(
+				row.checkoutDate().isBefore(last.checkoutDate())
+						|| (row.checkoutDate().equals(last.checkoutDate()) && row.id() < last.id())).isTrue());
+	}
+
+	private void assertQueryBudget(String url, long budget) throws Exception {
+		statistics.clear();
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount())
+				.as("%s の SQL 発行数", url).isLessThanOrEqualTo(budget);
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.demo.bench;
+
+import com.example.demo.service.CsvReader;
+import com.example.demo.service.CsvService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 資産CSV (約50MB) の読み込み速度の比較。
+ * 従来の readLine + replace + split + trim と、CsvReader による読み込み。
+ * どちらも CsvService.createReader による文字コード判定から、全列の値を String として取り出すところまでを測る。
+ * ファイルは BOM 付き UTF-8 と、Excel が保存する BOM なしの Shift-JIS (Windows-31J) の2通り。
+ *
+ * <p>実行: {@code mvn -Pbench verify -Djmh.include=CsvParseBenchmark} (結果は target/jmh-result.json)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class CsvParseBenchmark {
+
+	private static final int TARGET_BYTES = 50 * 1024 * 1024;
+	private static final int COLUMNS = 11;
+
+	@Param({"UTF8", "SJIS"})
+	public String encoding;
+
+	private byte[] file;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		boolean utf8 = encoding.equals("UTF8");
+		Charset charset = utf8 ? StandardCharsets.UTF_8 : Charset.forName("Windows-31J");
+		ByteArrayOutputStream out = new ByteArrayOutputStream(TARGET_BYTES + 1024);
+		if (utf8) out.writeBytes(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+		out.writeBytes("旧管理No,資産種別,品名,型名,製造番号,OS,CPU,メモリ,ストレージ,スペック,購入日\r\n"
+				.getBytes(charset));
+		for (int i = 0; out.size() < TARGET_BYTES; i++) {
+			String line = "PC-%07d,%s,ThinkPad X1 Carbon Gen %d,20U9CTO1WW,PF-%08d,Windows 11 Pro,Core i7-1365U,16GB,512GB SSD,Wi-Fi 6E / LTE,2025-04-%02d\r\n"
+					.formatted(i, i % 3 == 0 ? "携帯" : "PC", i % 12, i, i % 28 + 1);
+			out.writeBytes(line.getBytes(charset));
+		}
+		file = out.toByteArray();
+	}
+
+	/** 従来の方式 (CsvService が split を使っていたときの処理) */
+	@Benchmark
+	public void splitLines(Blackhole bh) throws IOException {
+		try (BufferedReader reader = new BufferedReader(
+				CsvService.createReader(new ByteArrayInputStream(file)))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.replace("\uFEFF", "");
+				if (line.trim().isEmpty()) continue;
+				String[] cols = line.split(",", -1);
+				for (int c = 0; c < COLUMNS; c++) {
+					bh.consume(cols.length > c ? cols[c].trim() : "");
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void csvReader(Blackhole bh) throws IOException {
+		try (CsvReader csv = new CsvReader(CsvService.createReader(new ByteArrayInputStream(file)))) {
+			while (csv.next()) {
+				if (csv.isBlank()) continue;
+				for (int c = 0; c < COLUMNS; c++) {
+					bh.consume(csv.field(c));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.demo.bench;
+
+import com.example.demo.service.QrCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QRコード生成 (QrCodeService) の速度。
+ * 画像表示 (/qrcode/{id}) とラベル印刷の主なサイズごとに、キャッシュを通さない生成 (初回表示) と
+ * キャッシュ命中 (2回目以降の表示) を測る。生成側は毎回異なる資産IDを使う。
+ *
+ * <p>実行: {@code mvn -Pbench verify -Djmh.include=QrCodeBenchmark} (結果は target/jmh-result.json)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QrCodeBenchmark {
+
+	private static final int IDS = 1024;
+
+	@Param({"150", "250", "500"})
+	public int size;
+
+	/** キャッシュを持たない (上限0) サービス */
+	private QrCodeService uncached;
+	/** 全IDの画像をキャッシュ済みのサービス */
+	private QrCodeService cached;
+	private String[] ids;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		uncached = new QrCodeService(new SimpleMeterRegistry(), 0);
+		cached = new QrCodeService(new SimpleMeterRegistry(), 64L * 1024 * 1024);
+		ids = new String[IDS];
+		for (int i = 0; i < IDS; i++) {
+			ids[i] = "A%07d".formatted(i + 1);
+			cached.generateQrCodeImage(ids[i], size, size);
+		}
+	}
+
+	private String nextId() {
+		next = (next + 1) & (IDS - 1);
+		return ids[next];
+	}
+
+	@Benchmark
+	public byte[] generateImage() {
+		return uncached.generateQrCodeImage(nextId(), size, size);
+	}
+
+	@Benchmark
+	public byte[] generateImageCached() {
+		return cached.generateQrCodeImage(nextId(), size, size);
+	}
+
+	@Benchmark
+	public String generateBase64() {
+		return uncached.generateQrCodeBase64(nextId(), size, size);
+	}
+}
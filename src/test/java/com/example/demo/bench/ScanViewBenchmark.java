@@ -0,0 +1,95 @@
+package com.example.demo.bench;
+
+import com.example.demo.dto.AssetScanView;
+import com.example.demo.dto.EmployeeScanView;
+import com.example.demo.entity.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * スキャン画面の照会 API (OperationController.findEmployee / findAsset) の応答組み立ての速度。
+ * 現在の EmployeeScanView / AssetScanView と、従来のリクエストごとに LinkedHashMap を組み立てる方式を、
+ * JSON へのシリアライズまで含めて比較する (DB アクセスは含まない)。
+ *
+ * <p>実行: {@code mvn -Pbench verify -Djmh.include=ScanViewBenchmark} (結果は target/jmh-result.json)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanViewBenchmark {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Employee employee;
+	private Asset asset;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Department department = new Department();
+		department.setId(3L);
+		department.setName("情報システム部");
+		Section section = new Section();
+		section.setId(12L);
+		section.setName("インフラ課");
+		section.setDepartment(department);
+
+		employee = new Employee();
+		employee.setId(1024L);
+		employee.setEmployeeCode("E001024");
+		employee.setName("山田 太郎");
+		employee.setDepartment(department);
+		employee.setSection(section);
+
+		asset = new Asset();
+		asset.setId(2048L);
+		asset.setQrCodeId("A0002048");
+		asset.setProductName("ThinkPad X1 Carbon Gen 11");
+		asset.setModelName("21HMCTO1WW");
+		asset.setSerialNumber("PF-01234567");
+		asset.setStatus(AssetStatus.IN_USE);
+	}
+
+	@Benchmark
+	public String employeeView() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(EmployeeScanView.of(employee));
+	}
+
+	/** 従来の方式 (findEmployee が応答ごとに Map を組み立てていたときの処理) */
+	@Benchmark
+	public String employeeMap() throws JsonProcessingException {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("id", employee.getId());
+		map.put("employeeCode", employee.getEmployeeCode());
+		map.put("name", employee.getName());
+		map.put("department", employee.getDepartment() != null ? employee.getDepartment().getName() : "");
+		map.put("section", employee.getSection() != null ? employee.getSection().getName() : "");
+		return objectMapper.writeValueAsString(map);
+	}
+
+	@Benchmark
+	public String assetView() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(AssetScanView.of(asset, employee.getName()));
+	}
+
+	/** 従来の方式 (findAsset が応答ごとに Map を組み立てていたときの処理) */
+	@Benchmark
+	public String assetMap() throws JsonProcessingException {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("id", asset.getId());
+		map.put("qrCodeId", asset.getQrCodeId());
+		map.put("productName", asset.getProductName());
+		map.put("modelName", asset.getModelName() != null ? asset.getModelName() : "");
+		map.put("serialNumber", asset.getSerialNumber() != null ? asset.getSerialNumber() : "");
+		map.put("status", asset.getStatus().name());
+		map.put("statusDisplay", asset.getStatus().getDisplayName());
+		return objectMapper.writeValueAsString(map);
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UploadFileIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UploadController の Range・条件付きリクエスト・事前圧縮版の選択を確認する。
+ */
+class UploadControllerTests {
+
+	private static final int SIZE = 1000;
+
+	@TempDir
+	Path dir;
+
+	private UploadController controller;
+	private String etag;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.write(dir.resolve("photo.png"), new byte[SIZE]);
+		Files.write(dir.resolve("photo.png.br"), new byte[100]);
+		UploadFileIndex index = new UploadFileIndex(dir.toString());
+		index.refresh("photo.png");
+		index.refresh("photo.png.br");
+		etag = index.get("photo.png").orElseThrow().etag();
+		controller = new UploadController(index);
+	}
+
+	@Test
+	void parseRange() {
+		assertThat(UploadController.parseRange("bytes=0-99", SIZE)).containsExactly(0, 99);
+		// 末尾から N バイト (ファイルより長ければ全体)
+		assertThat(UploadController.parseRange("bytes=-100", SIZE)).containsExactly(900, 999);
+		assertThat(UploadController.parseRange("bytes=-5000", SIZE)).containsExactly(0, 999);
+		// 終了省略・ファイル末尾を超える終了
+		assertThat(UploadController.parseRange("bytes=500-", SIZE)).containsExactly(500, 999);
+		assertThat(UploadController.parseRange("bytes=900-2000", SIZE)).containsExactly(900, 999);
+		// 開始がファイルの外なら満たせない範囲
+		assertThat(UploadController.parseRange("bytes=1000-", SIZE)).isEmpty();
+		// 複数範囲・解釈できない指定 (終了が開始より前を含む) は全体を返す
+		assertThat(UploadController.parseRange("bytes=0-1,5-6", SIZE)).isNull();
+		assertThat(UploadController.parseRange("bytes=-", SIZE)).isNull();
+		assertThat(UploadController.parseRange("bytes=500-100", SIZE)).isNull();
+		assertThat(UploadController.parseRange("items=0-1", SIZE)).isNull();
+	}
+
+	@Test
+	void acceptsEncodingHonoursQValues() {
+		assertThat(UploadController.acceptsEncoding("gzip, br", "br")).isTrue();
+		assertThat(UploadController.acceptsEncoding("br;q=0, gzip", "br")).isFalse();
+		assertThat(UploadController.acceptsEncoding("br;q=0, gzip", "gzip")).isTrue();
+		assertThat(UploadController.acceptsEncoding("brotli", "br")).isFalse();
+		assertThat(UploadController.acceptsEncoding("*;q=0.5", "br")).isTrue();
+		assertThat(UploadController.acceptsEncoding("*, br;q=0", "br")).isFalse();
+		assertThat(UploadController.acceptsEncoding("", "br")).isFalse();
+	}
+
+	@Test
+	void partialContent() throws IOException {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=100-199");
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 100-199/" + SIZE);
+		assertThat(response.getContentAsByteArray()).hasSize(100);
+	}
+
+	@Test
+	void unsatisfiableRange() throws IOException {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=" + SIZE + "-");
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getStatus()).isEqualTo(416);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */" + SIZE);
+	}
+
+	@Test
+	void staleIfRangeReturnsWholeFile() throws IOException {
+		MockHttpServletRequest request = request();
+		request.addHeader("Range", "bytes=100-199");
+		request.addHeader("If-Range", "\"other\"");
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsByteArray()).hasSize(SIZE);
+	}
+
+	@Test
+	void notModified() throws IOException {
+		MockHttpServletRequest request = request();
+		request.addHeader("Accept-Encoding", "identity");
+		request.addHeader("If-None-Match", etag);
+
+		assertThat(serve(request).getStatus()).isEqualTo(304);
+	}
+
+	@Test
+	void brotliRefusedWithZeroQuality() throws IOException {
+		MockHttpServletRequest request = request();
+		request.addHeader("Accept-Encoding", "br;q=0");
+		MockHttpServletResponse response = serve(request);
+
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsByteArray()).hasSize(SIZE);
+
+		request = request();
+		request.addHeader("Accept-Encoding", "gzip, br");
+		response = serve(request);
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("br");
+		assertThat(response.getContentAsByteArray()).hasSize(100);
+	}
+
+	private static MockHttpServletRequest request() {
+		return new MockHttpServletRequest("GET", "/uploads/photo.png");
+	}
+
+	private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.serve(request, response);
+		return response;
+	}
+}
@@ -0,0 +1,341 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 起動中のアプリへ、スキャン・一覧・詳細・CSV取込を混ぜたリクエストを送り続け、
+ * エンドポイントごとの応答時間 (p50 / p99) を集計する。
+ *
+ * <p>クライアントはそれぞれ画面と同じくフォームログインしたセッションを持ち、前のリクエストの応答を
+ * 受け取ってから次を送る (クローズドモデル)。リダイレクトは追わず、1リクエスト分の応答時間だけを測る。
+ * CSV取込は非同期のため、アップロードから取込ジョブの完了 (進捗 API で確認) までを import、
+ * ジョブの受付 (リダイレクト) までを import-submit として別に集計する。
+ * 応答時間は全件を保持して最後に並べ替えるため、パーセンタイルは近似ではない。
+ */
+public class LoadDriver {
+
+	/** リクエストの種類 (mix のキー) */
+	public enum Endpoint {
+		SCAN_EMPLOYEE("scan-employee"),
+		SCAN_ASSET("scan-asset"),
+		LIST("list"),
+		DETAIL("detail"),
+		IMPORT("import");
+
+		private final String key;
+
+		Endpoint(String key) {
+			this.key = key;
+		}
+
+		public String getKey() {
+			return key;
+		}
+	}
+
+	/** エンドポイント1つ分の集計 */
+	public record Result(String endpoint, long requests, long errors, double throughput,
+						 double p50Millis, double p99Millis, double maxMillis) {}
+
+	private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+	private static final Pattern JOB_STATUS = Pattern.compile("\"status\"\\s*:\\s*\"(\\w+)\"");
+	private static final int PAGE_SIZE = 50;
+	/** 取込ジョブの受付までの集計名 */
+	private static final String IMPORT_SUBMIT = "import-submit";
+	/** 取込ジョブの進捗を問い合わせる間隔と、計測終了後に完了を待つ上限 */
+	private static final long IMPORT_POLL_MILLIS = 50;
+	private static final Duration IMPORT_TIMEOUT = Duration.ofSeconds(60);
+
+	private final URI baseUri;
+	private final String username;
+	private final String password;
+	private final SyntheticDataGenerator.Dataset dataset;
+	private final LoadSettings settings;
+	private final Endpoint[] endpoints;
+	private final int[] cumulativeWeights;
+
+	public LoadDriver(URI baseUri, String username, String password,
+					  SyntheticDataGenerator.Dataset dataset, LoadSettings settings) {
+		this.baseUri = baseUri;
+		this.username = username;
+		this.password = password;
+		this.dataset = dataset;
+		this.settings = settings;
+
+		List<Endpoint> weighted = new ArrayList<>();
+		List<Integer> cumulative = new ArrayList<>();
+		int total = 0;
+		for (Endpoint endpoint : Endpoint.values()) {
+			int weight = settings.mix().getOrDefault(endpoint.getKey(), 0);
+			if (weight <= 0) continue;
+			total += weight;
+			weighted.add(endpoint);
+			cumulative.add(total);
+		}
+		if (weighted.isEmpty()) {
+			throw new IllegalArgumentException("app.load.mix に比率が1以上のエンドポイントがありません");
+		}
+		this.endpoints = weighted.toArray(Endpoint[]::new);
+		this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/** 設定された時間だけリクエストを送り、エンドポイントごとの集計を返す */
+	public List<Result> run() throws InterruptedException {
+		long warmupEnd = System.nanoTime() + settings.warmup().toNanos();
+		long end = warmupEnd + settings.duration().toNanos();
+
+		ExecutorService executor = Executors.newFixedThreadPool(settings.threads());
+		List<Future<Recorder>> futures = new ArrayList<>();
+		for (int i = 0; i < settings.threads(); i++) {
+			Client client = new Client(i, new Random(settings.seed() + i));
+			futures.add(executor.submit(() -> client.run(warmupEnd, end)));
+		}
+		executor.shutdown();
+
+		Recorder total = new Recorder();
+		for (Future<Recorder> future : futures) {
+			try {
+				total.addAll(future.get());
+			} catch (ExecutionException e) {
+				executor.shutdownNow();
+				throw new IllegalStateException("負荷クライアントが異常終了しました", e.getCause());
+			}
+		}
+		return total.results(settings.duration());
+	}
+
+	/** 1クライアント分のセッションとリクエストの送信 */
+	private final class Client {
+
+		private final int index;
+		private final Random random;
+		private final HttpClient http;
+		private final Recorder recorder = new Recorder();
+		private String csrfToken;
+		private int imports;
+
+		private Client(int index, Random random) {
+			this.index = index;
+			this.random = random;
+			this.http = HttpClient.newBuilder()
+					.cookieHandler(new CookieManager())
+					.followRedirects(HttpClient.Redirect.NEVER)
+					.connectTimeout(Duration.ofSeconds(10))
+					.build();
+		}
+
+		private Recorder run(long warmupEnd, long end) throws IOException, InterruptedException {
+			login();
+			while (System.nanoTime() < end) {
+				Endpoint endpoint = nextEndpoint();
+				HttpRequest request = request(endpoint);
+				long start = System.nanoTime();
+				boolean measured = start >= warmupEnd;
+				HttpResponse<Void> response = null;
+				try {
+					response = http.send(request, HttpResponse.BodyHandlers.discarding());
+				} catch (IOException e) {
+					// 応答がなければエラーとして数える
+				}
+				boolean error = response == null || !succeeded(endpoint, response);
+				long elapsed = System.nanoTime() - start;
+				if (endpoint == Endpoint.IMPORT) {
+					if (measured) {
+						recorder.record(IMPORT_SUBMIT, elapsed, error);
+					}
+					if (!error) {
+						error = !awaitImport(jobId(response), end + IMPORT_TIMEOUT.toNanos());
+						elapsed = System.nanoTime() - start;
+					}
+				}
+				if (measured) {
+					recorder.record(endpoint.getKey(), elapsed, error);
+				}
+			}
+			return recorder;
+		}
+
+		/** 取込ジョブが終わるまで進捗 API を問い合わせ、正常に完了したかを返す */
+		private boolean awaitImport(String jobId, long deadline) throws InterruptedException {
+			HttpRequest poll = get("/api/import-jobs/" + jobId);
+			while (System.nanoTime() < deadline) {
+				try {
+					HttpResponse<String> response = http.send(poll, HttpResponse.BodyHandlers.ofString());
+					if (response.statusCode() != 200) return false;
+					Matcher matcher = JOB_STATUS.matcher(response.body());
+					if (matcher.find()) {
+						if (matcher.group(1).equals("COMPLETED")) return true;
+						if (matcher.group(1).equals("FAILED")) return false;
+					}
+				} catch (IOException e) {
+					return false;
+				}
+				Thread.sleep(IMPORT_POLL_MILLIS);
+			}
+			return false;
+		}
+
+		/** ログイン画面と同じ手順でセッションを作り、CSV取込で送る CSRF トークンを取得する */
+		private void login() throws IOException, InterruptedException {
+			String loginToken = fetchCsrfToken("/login");
+			String form = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(loginToken);
+			HttpResponse<Void> response = http.send(HttpRequest.newBuilder(baseUri.resolve("/login"))
+							.header("Content-Type", "application/x-www-form-urlencoded")
+							.POST(HttpRequest.BodyPublishers.ofString(form))
+							.build(),
+					HttpResponse.BodyHandlers.discarding());
+			String location = response.headers().firstValue("Location").orElse("");
+			if (response.statusCode() != 302 || location.contains("error")) {
+				throw new IllegalStateException("ログインに失敗しました: " + response.statusCode() + " " + location);
+			}
+			// ログインでトークンが作り直されるため、取込画面から取り直す
+			csrfToken = fetchCsrfToken("/assets/csv");
+		}
+
+		private String fetchCsrfToken(String path) throws IOException, InterruptedException {
+			HttpResponse<String> response = http.send(HttpRequest.newBuilder(baseUri.resolve(path)).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			Matcher matcher = CSRF.matcher(response.body());
+			if (!matcher.find()) {
+				throw new IllegalStateException(path + " から CSRF トークンを取得できません: " + response.statusCode());
+			}
+			return matcher.group(1);
+		}
+
+		private Endpoint nextEndpoint() {
+			int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+			for (int i = 0; i < cumulativeWeights.length; i++) {
+				if (r < cumulativeWeights[i]) return endpoints[i];
+			}
+			return endpoints[endpoints.length - 1];
+		}
+
+		private HttpRequest request(Endpoint endpoint) {
+			return switch (endpoint) {
+				case SCAN_EMPLOYEE -> get("/api/employees/by-code/" + pick(dataset.employeeCodes()));
+				case SCAN_ASSET -> get("/api/assets/by-qr/" + pick(dataset.qrCodeIds()));
+				case LIST -> get("/assets?page=" + listPage());
+				case DETAIL -> get("/assets/" + pick(dataset.assetIds()));
+				case IMPORT -> importRequest();
+			};
+		}
+
+		/** 一覧は先頭ページほどよく見られる (平均2ページ目の指数分布) */
+		private int listPage() {
+			int pages = Math.max(1, (dataset.assetIds().size() + PAGE_SIZE - 1) / PAGE_SIZE);
+			return Math.min(pages - 1, (int) (-Math.log(1 - random.nextDouble()) * 2));
+		}
+
+		private HttpRequest get(String path) {
+			return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+		}
+
+		/** 旧管理No・製造番号がクライアントと回数ごとに一意な資産CSVのアップロード */
+		private HttpRequest importRequest() {
+			int batch = imports++;
+			StringBuilder csv = new StringBuilder("\uFEFF旧管理No,資産種別,品名,型名,製造番号\r\n");
+			for (int row = 0; row < settings.importRows(); row++) {
+				String key = "LT-%d-%d-%d".formatted(index, batch, row);
+				csv.append(key).append(",PC,負荷試験用PC,LT-MODEL,").append(key).append("\r\n");
+			}
+			String boundary = "----load" + UUID.randomUUID();
+			String body = "--" + boundary + "\r\n"
+					+ "Content-Disposition: form-data; name=\"file\"; filename=\"load.csv\"\r\n"
+					+ "Content-Type: text/csv\r\n\r\n"
+					+ csv + "\r\n"
+					+ "--" + boundary + "--\r\n";
+			return HttpRequest.newBuilder(baseUri.resolve("/assets/csv/upload"))
+					.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+					.header("X-CSRF-TOKEN", csrfToken)
+					.POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+					.build();
+		}
+
+		private <T> T pick(List<T> values) {
+			return values.get(random.nextInt(values.size()));
+		}
+	}
+
+	/** 画面系はリダイレクトでなく 200、取込は受付後のジョブ画面へのリダイレクトを成功とみなす */
+	private static boolean succeeded(Endpoint endpoint, HttpResponse<?> response) {
+		if (endpoint == Endpoint.IMPORT) {
+			return response.statusCode() == 302
+					&& response.headers().firstValue("Location").orElse("").contains("job=");
+		}
+		return response.statusCode() == 200;
+	}
+
+	/** 取込のリダイレクト先 (…?job=ID) からジョブ ID を取り出す */
+	private static String jobId(HttpResponse<?> response) {
+		String location = response.headers().firstValue("Location").orElseThrow();
+		return location.substring(location.indexOf("job=") + "job=".length());
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	/** 集計名 (エンドポイントのキーまたは import-submit) ごとの応答時間 (ナノ秒) の記録 */
+	private static final class Recorder {
+
+		private final Map<String, long[]> latencies = new HashMap<>();
+		private final Map<String, Integer> counts = new TreeMap<>();
+		private final Map<String, Long> errors = new HashMap<>();
+
+		void record(String endpoint, long nanos, boolean error) {
+			int count = counts.getOrDefault(endpoint, 0);
+			long[] values = latencies.computeIfAbsent(endpoint, e -> new long[1024]);
+			if (count == values.length) {
+				values = Arrays.copyOf(values, count * 2);
+				latencies.put(endpoint, values);
+			}
+			values[count] = nanos;
+			counts.put(endpoint, count + 1);
+			if (error) errors.merge(endpoint, 1L, Long::sum);
+		}
+
+		void addAll(Recorder other) {
+			other.counts.forEach((endpoint, count) -> {
+				long[] values = other.latencies.get(endpoint);
+				for (int i = 0; i < count; i++) {
+					record(endpoint, values[i], false);
+				}
+			});
+			other.errors.forEach((endpoint, n) -> errors.merge(endpoint, n, Long::sum));
+		}
+
+		List<Result> results(Duration duration) {
+			List<Result> results = new ArrayList<>();
+			double seconds = duration.toNanos() / 1e9;
+			counts.forEach((endpoint, count) -> {
+				long[] sorted = Arrays.copyOf(latencies.get(endpoint), count);
+				Arrays.sort(sorted);
+				results.add(new Result(endpoint, count, errors.getOrDefault(endpoint, 0L),
+						count / seconds, millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+						millis(sorted[count - 1])));
+			});
+			return results;
+		}
+
+		private static long percentile(long[] sorted, double p) {
+			int rank = (int) Math.ceil(p * sorted.length);
+			return sorted[Math.max(0, rank - 1)];
+		}
+
+		private static double millis(long nanos) {
+			return Math.round(nanos / 1e4) / 100.0;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.demo.load;
+
+import com.example.demo.DemoApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 負荷試験の起動クラス。ネットワークや MySQL なしで実行できる。
+ *
+ * <p>MySQL 互換モードのインメモリ H2 (h2 + load プロファイル) でアプリを空きポートに起動し、
+ * {@link SyntheticDataGenerator} で合成データを投入してから {@link LoadDriver} でリクエストを送る。
+ * 結果はエンドポイントごとの表として出力し、設定とともに JSON (app.load.result) にも書き出す。
+ *
+ * <p>実行: {@code mvn -Pload verify}。規模などは {@code -Dload.args="--app.load.assets=50000 --app.load.threads=32"}
+ * のように app.load.* を上書きする (既定値は application-load.properties)。
+ */
+public class LoadRunner {
+
+	/** DataInitializer が作成する管理者 */
+	private static final String USERNAME = "admin";
+	private static final String PASSWORD = "admin123";
+
+	public static void main(String[] args) throws Exception {
+		// Maven の load.args は1つの引数として渡るため空白で分ける
+		String[] arguments = Stream.concat(Stream.of("--spring.profiles.active=h2,load"),
+						Stream.of(args).flatMap(arg -> Arrays.stream(arg.trim().split("\\s+"))))
+				.filter(arg -> !arg.isEmpty())
+				.toArray(String[]::new);
+		try (ConfigurableApplicationContext context = SpringApplication.run(DemoApplication.class, arguments)) {
+			LoadSettings settings = Binder.get(context.getEnvironment()).bind("app.load", LoadSettings.class).get();
+			int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+			SyntheticDataGenerator generator = context.getAutowireCapableBeanFactory()
+					.createBean(SyntheticDataGenerator.class);
+			SyntheticDataGenerator.Dataset dataset = generator.generate(settings);
+
+			LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port), USERNAME, PASSWORD,
+					dataset, settings);
+			List<LoadDriver.Result> results = driver.run();
+
+			print(settings, results);
+			write(Path.of(settings.result()), settings, results);
+		}
+	}
+
+	private static void print(LoadSettings settings, List<LoadDriver.Result> results) {
+		System.out.printf("%n負荷試験の結果 (クライアント %d / 計測 %ds)%n", settings.threads(), settings.duration().toSeconds());
+		System.out.printf("%-14s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+		for (LoadDriver.Result r : results) {
+			System.out.printf("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+					r.endpoint(), r.requests(), r.errors(), r.throughput(), r.p50Millis(), r.p99Millis(), r.maxMillis());
+		}
+	}
+
+	private static void write(Path file, LoadSettings settings, List<LoadDriver.Result> results) throws IOException {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("settings", settings);
+		report.put("results", results);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(file.toFile(), report);
+		System.out.println("結果を書き出しました: " + file.toAbsolutePath());
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.demo.load;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 負荷試験の設定 (app.load.*、既定値は application-load.properties)。
+ *
+ * @param departments           部署数
+ * @param sectionsPerDepartment 1部署あたりの課の数 (平均)
+ * @param employees             社員数
+ * @param assets                資産数
+ * @param years                 購入日・貸出履歴をさかのぼる年数
+ * @param seed                  乱数の種 (同じ値なら同じデータ・同じリクエスト列になる)
+ * @param threads               同時にリクエストを送るクライアント数
+ * @param warmup                集計に含めない立ち上がり時間
+ * @param duration              集計する時間
+ * @param mix                   エンドポイントごとのリクエストの比率 (キーは {@link LoadDriver.Endpoint} の名前)
+ * @param importRows            CSV取込1回あたりの行数
+ * @param result                結果 (JSON) の出力先
+ */
+public record LoadSettings(
+		int departments,
+		int sectionsPerDepartment,
+		int employees,
+		int assets,
+		int years,
+		long seed,
+		int threads,
+		Duration warmup,
+		Duration duration,
+		Map<String, Integer> mix,
+		int importRows,
+		String result
+) {
+}
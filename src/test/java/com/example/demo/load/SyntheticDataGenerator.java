@@ -0,0 +1,241 @@
+package com.example.demo.load;
+
+import com.example.demo.entity.*;
+import com.example.demo.event.OrganizationChangedEvent;
+import com.example.demo.service.DashboardStatsService;
+import com.example.demo.service.QrCodeIdAllocator;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 負荷試験用の合成データを空のデータベースへ投入する。
+ *
+ * <p>部署の規模には偏りを持たせ (先頭の部署ほど社員が多い)、資産は購入日から現在までの貸出・返却の履歴を持つ。
+ * 貸出期間は中央値8か月の対数正規分布とし、現在の状態が使用中の資産だけ未返却の貸出で終わる。
+ * 同じ設定・乱数の種からは同じデータになる (QRコードIDは採番のため除く)。
+ *
+ * <p>社員は IDENTITY 採番で Hibernate のバッチが効かないため JdbcTemplate の batchUpdate で、
+ * 資産・貸出履歴はシーケンス採番のため CSV 取込と同じく JPA で一定件数ごとに flush する (JDBC バッチになる)。
+ */
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+	private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+	private static final int CHUNK_SIZE = 500;
+	/** 貸出期間の中央値 (日) と対数標準偏差 */
+	private static final double LOAN_MEDIAN_DAYS = 240;
+	private static final double LOAN_SIGMA = 0.8;
+
+	private static final String[] DEPARTMENTS = {
+			"営業部", "開発部", "製造部", "総務部", "情報システム部", "経理部",
+			"人事部", "品質保証部", "物流部", "企画部", "購買部", "法務部"};
+	private static final String[] FAMILY_NAMES = {
+			"佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村", "小林", "加藤",
+			"吉田", "山田", "佐々木", "山口", "松本", "井上", "木村", "林", "斎藤", "清水"};
+	private static final String[] GIVEN_NAMES = {
+			"太郎", "花子", "一郎", "美咲", "健太", "陽子", "翔", "由美",
+			"大輔", "恵", "拓也", "真由美", "直樹", "愛", "誠", "綾"};
+
+	private record Model(AssetType type, String productName, String modelName,
+						 String os, String cpu, String memory, String storage) {}
+
+	private static final Model[] MODELS = {
+			new Model(AssetType.PC, "ThinkPad X1 Carbon Gen 11", "21HMCTO1WW", "Windows 11 Pro", "Core i7-1365U", "16GB", "512GB SSD"),
+			new Model(AssetType.PC, "ThinkPad L14 Gen 4", "21H1CTO1WW", "Windows 11 Pro", "Core i5-1335U", "16GB", "256GB SSD"),
+			new Model(AssetType.PC, "Latitude 5440", "LA5440-I5", "Windows 11 Pro", "Core i5-1345U", "8GB", "256GB SSD"),
+			new Model(AssetType.PC, "MacBook Air 13", "MLY33J/A", "macOS", "Apple M2", "16GB", "512GB SSD"),
+			new Model(AssetType.MOBILE, "iPhone 15", "MTMT3J/A", "iOS", null, null, "128GB"),
+			new Model(AssetType.MOBILE, "iPhone SE (第3世代)", "MMYD3J/A", "iOS", null, null, "64GB"),
+			new Model(AssetType.MOBILE, "Galaxy A54 5G", "SC-53D", "Android", null, null, "128GB")};
+
+	private final PlatformTransactionManager transactionManager;
+	private final EntityManager entityManager;
+	private final JdbcTemplate jdbcTemplate;
+	private final QrCodeIdAllocator qrCodeIdAllocator;
+	private final DashboardStatsService dashboardStatsService;
+	private final ApplicationEventPublisher eventPublisher;
+
+	/** 投入したデータのうち、負荷試験のリクエストで使うキー */
+	public record Dataset(List<String> employeeCodes, List<String> qrCodeIds, List<Long> assetIds) {}
+
+	/** 部署1件分の ID (課の ID を含む) */
+	private record OrganizationIds(long departmentId, long[] sectionIds) {}
+
+	public Dataset generate(LoadSettings settings) {
+		Long existing = jdbcTemplate.queryForObject("select count(*) from employees", Long.class);
+		if (existing != null && existing > 0) {
+			throw new IllegalStateException("合成データは社員が空のデータベースにだけ投入できます");
+		}
+		long started = System.nanoTime();
+		Random random = new Random(settings.seed());
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		List<OrganizationIds> organization = tx.execute(status -> insertOrganization(settings, random));
+		List<String> employeeCodes = insertEmployees(settings, organization, random);
+		Map<String, Long> employeeIds = new HashMap<>();
+		jdbcTemplate.query("select id, employee_code from employees",
+				rs -> { employeeIds.put(rs.getString(2), rs.getLong(1)); });
+		long[] employeeIdArray = employeeCodes.stream().mapToLong(employeeIds::get).toArray();
+
+		List<String> qrCodeIds = new ArrayList<>(settings.assets());
+		List<Long> assetIds = new ArrayList<>(settings.assets());
+		long assignments = 0;
+		for (int from = 0; from < settings.assets(); from += CHUNK_SIZE) {
+			int to = Math.min(from + CHUNK_SIZE, settings.assets());
+			int chunkFrom = from;
+			assignments += tx.execute(status -> insertAssets(settings, chunkFrom, to, employeeIdArray, random,
+					qrCodeIds, assetIds));
+		}
+
+		// 部署・課のスナップショットとダッシュボードの集計を投入後のデータで作り直す
+		eventPublisher.publishEvent(new OrganizationChangedEvent());
+		dashboardStatsService.reconcile();
+
+		log.info("合成データを投入しました: 部署 {} / 社員 {} / 資産 {} / 貸出履歴 {} ({} ms)",
+				organization.size(), employeeCodes.size(), assetIds.size(), assignments,
+				(System.nanoTime() - started) / 1_000_000);
+		return new Dataset(List.copyOf(employeeCodes), List.copyOf(qrCodeIds), List.copyOf(assetIds));
+	}
+
+	private List<OrganizationIds> insertOrganization(LoadSettings settings, Random random) {
+		List<Department> departments = new ArrayList<>();
+		for (int i = 0; i < settings.departments(); i++) {
+			Department department = new Department();
+			String name = DEPARTMENTS[i % DEPARTMENTS.length];
+			department.setName(i < DEPARTMENTS.length ? name : name + (i / DEPARTMENTS.length + 1));
+			int sections = 1 + random.nextInt(Math.max(1, settings.sectionsPerDepartment() * 2 - 1));
+			for (int s = 1; s <= sections; s++) {
+				Section section = new Section();
+				section.setName("第" + s + "課");
+				section.setDepartment(department);
+				department.getSections().add(section);
+			}
+			entityManager.persist(department);
+			departments.add(department);
+		}
+		entityManager.flush();
+		return departments.stream()
+				.map(d -> new OrganizationIds(d.getId(),
+						d.getSections().stream().mapToLong(Section::getId).toArray()))
+				.toList();
+	}
+
+	/** 社員を登録し、社員番号を登録順に返す。所属は部署の順位に反比例する重みで選ぶ */
+	private List<String> insertEmployees(LoadSettings settings, List<OrganizationIds> organization, Random random) {
+		double[] cumulative = new double[organization.size()];
+		double total = 0;
+		for (int i = 0; i < cumulative.length; i++) {
+			total += 1 / Math.pow(i + 1, 0.8);
+			cumulative[i] = total;
+		}
+
+		List<String> codes = new ArrayList<>(settings.employees());
+		List<Object[]> batch = new ArrayList<>(CHUNK_SIZE);
+		for (int i = 0; i < settings.employees(); i++) {
+			String code = "E%06d".formatted(i + 1);
+			String name = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + " "
+					+ GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+			Long departmentId = null;
+			Long sectionId = null;
+			if (!organization.isEmpty()) {
+				int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+				OrganizationIds org = organization.get(Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1));
+				departmentId = org.departmentId();
+				sectionId = org.sectionIds()[random.nextInt(org.sectionIds().length)];
+			}
+			batch.add(new Object[]{code, name, departmentId, sectionId});
+			codes.add(code);
+			if (batch.size() == CHUNK_SIZE) {
+				insertEmployeeBatch(batch);
+			}
+		}
+		insertEmployeeBatch(batch);
+		return codes;
+	}
+
+	private void insertEmployeeBatch(List<Object[]> batch) {
+		if (batch.isEmpty()) return;
+		jdbcTemplate.batchUpdate(
+				"insert into employees (employee_code, name, department_id, section_id) values (?, ?, ?, ?)", batch);
+		batch.clear();
+	}
+
+	/** 資産 [from, to) とその貸出履歴を登録し、貸出履歴の件数を返す */
+	private long insertAssets(LoadSettings settings, int from, int to, long[] employeeIds, Random random,
+							  List<String> qrCodeIds, List<Long> assetIds) {
+		LocalDate today = LocalDate.now();
+		long assignments = 0;
+		for (int i = from; i < to; i++) {
+			Model model = MODELS[random.nextInt(MODELS.length)];
+			LocalDate purchased = today.minusDays(random.nextInt(Math.max(1, settings.years() * 365)));
+			AssetStatus status = randomStatus(random);
+
+			Asset asset = new Asset();
+			asset.setAssetType(model.type());
+			// 2割ほどは Excel 管理時代からの資産 (旧管理No あり)
+			if (random.nextInt(5) == 0) {
+				asset.setOldManagementCode("OLD-%06d".formatted(i + 1));
+			}
+			asset.setQrCodeId(qrCodeIdAllocator.nextId());
+			asset.setProductName(model.productName());
+			asset.setModelName(model.modelName());
+			asset.setSerialNumber("SN%09d".formatted(i + 1));
+			asset.setOs(model.os());
+			asset.setCpu(model.cpu());
+			asset.setMemory(model.memory());
+			asset.setStorage(model.storage());
+			asset.setPurchaseDate(purchased);
+			asset.setStatus(status);
+			entityManager.persist(asset);
+			qrCodeIds.add(asset.getQrCodeId());
+			assetIds.add(asset.getId());
+
+			if (employeeIds.length == 0) continue;
+			LocalDate cursor = purchased.plusDays(random.nextInt(30));
+			while (cursor.isBefore(today)) {
+				long days = Math.max(1, Math.round(LOAN_MEDIAN_DAYS * Math.exp(LOAN_SIGMA * random.nextGaussian())));
+				LocalDate returned = cursor.plusDays(days);
+				if (!returned.isBefore(today)) break;
+				persistAssignment(asset, employeeIds[random.nextInt(employeeIds.length)], cursor, returned);
+				assignments++;
+				cursor = returned.plusDays(1 + random.nextInt(60));
+			}
+			if (status == AssetStatus.IN_USE) {
+				LocalDate checkout = cursor.isAfter(today) ? today : cursor;
+				persistAssignment(asset, employeeIds[random.nextInt(employeeIds.length)], checkout, null);
+				assignments++;
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		return assignments;
+	}
+
+	private void persistAssignment(Asset asset, long employeeId, LocalDate checkout, LocalDate returned) {
+		Assignment assignment = new Assignment();
+		assignment.setAsset(asset);
+		assignment.setEmployee(entityManager.getReference(Employee.class, employeeId));
+		assignment.setCheckoutDate(checkout);
+		assignment.setReturnDate(returned);
+		entityManager.persist(assignment);
+	}
+
+	/** 使用中 6割 / 在庫 3割 / 故障・廃棄 1割 */
+	private static AssetStatus randomStatus(Random random) {
+		int r = random.nextInt(100);
+		if (r < 60) return AssetStatus.IN_USE;
+		if (r < 90) return AssetStatus.STOCK;
+		if (r < 94) return AssetStatus.BROKEN;
+		return AssetStatus.DISPOSED;
+	}
+}